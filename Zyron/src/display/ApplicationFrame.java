@@ -0,0 +1,159 @@
+package display;
+
+import java.awt.CardLayout;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+
+import utils.CustomizationTool;
+
+/*
+ * Application Frame class holds the one window of the program, every screen is a panel shown in it in turn
+ * The frame, its menu bar and its cursor are created once, and each screen is created the first time it is shown
+ * and kept after that, a screen shown again is reset to the state it starts in instead of being created again
+ * Switching screens only changes which card of the frame is visible, so going through the screens never opens a new window
+ */
+public class ApplicationFrame {
+
+	// the window of the program and the panel holding every screen as a card
+	private static JFrame frame;
+	private static final CardLayout screenLayout = new CardLayout();
+	private static final JPanel screenPanel = new JPanel(screenLayout);
+
+	// screens created so far, null until they are shown for the first time
+	private static IntroScreen introScreen;
+	private static HelpScreen helpScreen;
+	private static InputScreen inputScreen;
+	private static AssumptionScreen assumptionScreen;
+	private static QuestionScreen questionScreen;
+	private static ResultScreen resultScreen;
+
+	// screen currently shown, and the one the help screen returns to once it is closed
+	private static JPanel currentScreen;
+	private static JPanel screenBeforeHelp;
+
+	// method that shows the intro screen and starts the background music
+	public static void showIntroScreen() {
+
+		if (introScreen == null)
+			introScreen = new IntroScreen();
+
+		// a conversion still running on the input screen is cancelled, it can no longer be seen
+		if (inputScreen != null)
+			inputScreen.reset();
+
+		showScreen(introScreen, "intro");
+		CustomizationTool.playBackgroundMusic();
+
+	}
+
+	// method that shows the help screen from its first page, closing it shows the screen shown before it again
+	public static void showHelpScreen() {
+
+		if (helpScreen == null)
+			helpScreen = new HelpScreen();
+
+		helpScreen.reset();
+
+		if (currentScreen != helpScreen)
+			screenBeforeHelp = currentScreen;
+
+		showScreen(helpScreen, "help");
+
+	}
+
+	// method that closes the help screen and shows the screen it was opened from
+	public static void closeHelpScreen() {
+
+		JPanel previousScreen = screenBeforeHelp;
+		screenBeforeHelp = null;
+
+		// the help screen opened before any other screen returns to the intro screen
+		if (previousScreen == null)
+			showIntroScreen();
+
+		else
+			showScreen(previousScreen, previousScreen.getName());
+
+	}
+
+	// method that shows an empty input screen, ready for a new file
+	public static void showInputScreen() {
+
+		if (inputScreen == null)
+			inputScreen = new InputScreen();
+
+		inputScreen.reset();
+		showScreen(inputScreen, "input");
+
+	}
+
+	// method that shows the top guesses of the characters converted on the input screen
+	public static void showAssumptionScreen(ArrayList<HashMap<Character, Double>> characterHierarchy) {
+
+		if (assumptionScreen == null)
+			assumptionScreen = new AssumptionScreen();
+
+		assumptionScreen.showChoices(characterHierarchy);
+		showScreen(assumptionScreen, "assumption");
+
+	}
+
+	// method that shows the question screen asking for the word of the given length
+	public static void showQuestionScreen(int suspectedWordLength) {
+
+		if (questionScreen == null)
+			questionScreen = new QuestionScreen();
+
+		questionScreen.reset(suspectedWordLength);
+		showScreen(questionScreen, "question");
+
+	}
+
+	// method that shows the input image with the word selected for it
+	public static void showResultScreen(String selectedWord) {
+
+		if (resultScreen == null)
+			resultScreen = new ResultScreen(inputScreen);
+
+		resultScreen.showWord(selectedWord);
+		showScreen(resultScreen, "result");
+
+	}
+
+	// method that adds a screen as a card the first time it is shown, shows it, and creates the frame if it does not exist yet
+	private static void showScreen(JPanel screen, String screenName) {
+
+		if (screen.getParent() != screenPanel) {
+
+			screen.setName(screenName);
+			screenPanel.add(screen, screenName);
+
+		}
+
+		screenLayout.show(screenPanel, screenName);
+		currentScreen = screen;
+
+		if (frame == null) {
+
+			frame = new JFrame();
+
+			// the screen panel fills the frame the same way every screen used to fill its own frame
+			screenPanel.setBounds(0, 0, CustomizationTool.programWidth, CustomizationTool.programHeight);
+			frame.add(screenPanel);
+
+			CustomizationTool.addMenuBar(frame);
+			CustomizationTool.frameSetUp(frame);
+			CustomizationTool.setCustomCursor(frame);
+
+		}
+
+		// repaint the frame just in case the card change didn't update
+		screenPanel.revalidate();
+		screenPanel.repaint();
+
+	}
+
+}
@@ -4,97 +4,102 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Scanner;
 
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
-import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SwingConstants;
 
+import recognition.Recognizer;
 import utils.AudioPlayer;
 import utils.CustomizationTool;
+import utils.IconCache;
 
 /*
  * Author: Alan Sun
  * 
  * Assumption Screen displays up to 10 top guesses for the word inputed
  * Uses static methods from the CustomizationTool class that applies to all screens
- * Uses a customized comparator to sort the <String, Double> hash map
- * Extends JFrame and implements ActionListener for button controls
+ * Uses the Recognizer class to rank the dictionary words
+ * Created once and shown in the application frame with the guesses of every word converted
+ * Extends JPanel and implements ActionListener for button controls
  */
-public class AssumptionScreen extends JFrame implements ActionListener {
+public class AssumptionScreen extends JPanel implements ActionListener {
 
-	// image icons used in this frame
-	private ImageIcon correctIcon = new ImageIcon("utility/correct.png");
-	private ImageIcon guessIcon = new ImageIcon("utility/guess.png");
-	private ImageIcon neitherIcon = new ImageIcon("utility/neither.png");
-	
-	// JComponents used in this frame
-	private JPanel panel = new JPanel();
+	// JComponents used in this screen, the icons are shared with the other screens
 	private JLabel[] assumptionLabels = new JLabel[10];
-	private JLabel guessLabel = new JLabel(new ImageIcon(guessIcon.getImage().getScaledInstance(
-			guessIcon.getIconWidth()/3, guessIcon.getIconHeight()/3, 0)));
+	private JLabel guessLabel = new JLabel(IconCache.getScaledIcon("utility/guess.png", 3));
 	private JButton[] assumptionButtons = new JButton[10];
-	private JButton neitherButton = new JButton(new ImageIcon(neitherIcon.getImage().getScaledInstance(
-			neitherIcon.getIconWidth()/3, neitherIcon.getIconHeight()/3, 0)));
+	private JButton neitherButton = new JButton(IconCache.getScaledIcon("utility/neither.png", 3));
 	
 	// lists to store character informations
 	private HashMap<String, Double> topChoices = new HashMap<String, Double>();
 	private ArrayList<HashMap<Character, Double>> characterHierarchy = new ArrayList<HashMap<Character, Double>>();
 	
-	// input screen object used to get passed information
-	private InputScreen inputScreen;
-	
-	// constructor taking in 3 parameters, initializes variables, and calls other methods
-	public AssumptionScreen(InputScreen inputScreen, ArrayList<HashMap<Character, Double>> characterHierarchy) {
+	// constructor of assumption screen calls other methods
+	public AssumptionScreen() {
+
+		addJComponents();
+		
+	}
+
+	// method that ranks the dictionary words for the characters converted and shows the best ones on the labels
+	public void showChoices(ArrayList<HashMap<Character, Double>> characterHierarchy) {
 
-		this.inputScreen = inputScreen;
 		this.characterHierarchy = characterHierarchy;
 
 		getTopChoices();
-		addJComponents();
-		CustomizationTool.addMenuBar(this);
-		CustomizationTool.frameSetUp(this);
-		CustomizationTool.setCustomCursor(this);
-		
+
+		int count = 0;
+
+		// place all 10 top choices to the screen, if it exists
+		for (HashMap.Entry<String, Double> currentIndex : topChoices.entrySet()) {
+
+			assumptionLabels[count].setText(currentIndex.getKey());
+			assumptionLabels[count].setVisible(true);
+			assumptionButtons[count].setVisible(true);
+
+			count++;
+
+			// there can be max 10 similar words being displayed
+			if (count == assumptionLabels.length)
+				break;
+
+		}
+
+		// the labels and buttons left over from a word with more choices are hidden
+		for (; count < assumptionLabels.length; count++) {
+
+			assumptionLabels[count].setVisible(false);
+			assumptionButtons[count].setVisible(false);
+
+		}
+
 	}
 
-	// method that adds other JComponents to the frame
+	// method that adds other JComponents to the panel
 	private void addJComponents() {
 
 		// set up the panel by using the static method in the Customization tool
-		CustomizationTool.panelSetUp(this, panel);
+		CustomizationTool.panelSetUp(this);
 
 		// set the location of this JComponent and add it to the panel
 		guessLabel.setBounds(CustomizationTool.programWidth/2 - guessLabel.getIcon().getIconWidth()/2, 40, 
 				guessLabel.getIcon().getIconWidth(), guessLabel.getIcon().getIconHeight());
-		panel.add(guessLabel);
+		add(guessLabel);
 		
 		neitherButton.setBounds(CustomizationTool.programWidth/2 - neitherButton.getIcon().getIconWidth()/2, CustomizationTool.programHeight - 90, 
 				neitherButton.getIcon().getIconWidth(), neitherButton.getIcon().getIconHeight());
 		// enable button action on this frame for this JComponent
 		neitherButton.addActionListener(this);
-		panel.add(neitherButton);
+		add(neitherButton);
 		
-		int count = 0;
-
-		// place all 10 top choices to the screen, if it exists
-		for (HashMap.Entry<String, Double> currentIndex : topChoices.entrySet()) {
+		// create a label and a button for each of the 10 top choices, given their words when a word is shown
+		for (int count = 0; count < assumptionLabels.length; count++) {
 
-			String text = currentIndex.getKey();
-			assumptionLabels[count] = new JLabel(text);
+			assumptionLabels[count] = new JLabel();
 			
 			// set the font of this current JComponent and center text on the label
 			assumptionLabels[count].setFont(new Font("Book Antiqua", Font.ITALIC, 24));
@@ -109,19 +114,12 @@ public class AssumptionScreen extends JFrame implements ActionListener {
 			assumptionLabels[count].setOpaque(true);
 			assumptionLabels[count].setBounds(CustomizationTool.programWidth/2 - 250, 55*count + 100, 200, 50);
 
-			assumptionButtons[count] = new JButton(new ImageIcon(correctIcon.getImage().getScaledInstance(
-					correctIcon.getIconWidth()/3, correctIcon.getIconHeight()/3, 0)));
+			assumptionButtons[count] = new JButton(IconCache.getScaledIcon("utility/correct.png", 3));
 			assumptionButtons[count].addActionListener(this);
 			assumptionButtons[count].setBounds(CustomizationTool.programWidth/2 + 50, 55*count + 100, 200, 50);
 			
-			panel.add(assumptionLabels[count]);
-			panel.add(assumptionButtons[count]);
-
-			count++;
-
-			// there can be max 10 similar words being displayed
-			if (count == 10)
-				break;
+			add(assumptionLabels[count]);
+			add(assumptionButtons[count]);
 
 		}
 
@@ -130,46 +128,8 @@ public class AssumptionScreen extends JFrame implements ActionListener {
 	// method that iterates through each word in the dictionary and give it points
 	private void getTopChoices() {
 		
-		// try and catch to see if the dictionary file exist
-		try {
-			
-			// load the file using a scanner to read it
-			Scanner dictionary = new Scanner(new File("utility/dictionary.txt"));
-			
-			// iterate through each word in the dictionary
-			while(dictionary.hasNext()) {
-				
-				String word = dictionary.nextLine();
-				
-				// word is only a match to the input image if the character count is the same
-				if(word.length() == characterHierarchy.size()) {
-					
-					double characterPoints = 0;
-					
-					// calculate points for that word using each element in the characterHierarchy hash maps
-					for(int i = 0; i < characterHierarchy.size(); i++) 
-			
-						// loop through the map to calculates points for each character
-						for (Entry<Character, Double> hierarchyEntry : characterHierarchy.get(i).entrySet()) 
-							if(word.charAt(i) == hierarchyEntry.getKey())
-								
-								characterPoints += hierarchyEntry.getValue();
-						
-					// add the word and the points to the top choices map
-					topChoices.put(word, characterPoints);
-					
-				}
-
-			}
-			
-		} catch (FileNotFoundException error) {
-			
-			System.out.println("File not found");
-			
-		}
-		
-		// sort the top choices map in ascending order
-		topChoices = sortByValue(topChoices);
+		// the recognizer returns the best words of the same length sorted in descending order of points
+		topChoices = Recognizer.getTopChoices(characterHierarchy, assumptionLabels.length);
 		
 	}
 
@@ -185,9 +145,8 @@ public class AssumptionScreen extends JFrame implements ActionListener {
 				if(CustomizationTool.audioPlaying)
 					AudioPlayer.playAudio("utility/button.wav");
 				
-				// opens the result screen and closes this screen if user clicks it
-				new ResultScreen(inputScreen, assumptionLabels[i].getText());
-				this.dispose();
+				// shows the result screen in place of this one if user clicks it
+				ApplicationFrame.showResultScreen(assumptionLabels[i].getText());
 				
 			}
 			
@@ -198,43 +157,11 @@ public class AssumptionScreen extends JFrame implements ActionListener {
 			if(CustomizationTool.audioPlaying)
 				AudioPlayer.playAudio("utility/button.wav");
 			
-			// opens the question screen and closes this frame
-			new QuestionScreen(inputScreen, characterHierarchy.size());
-			this.dispose();
+			// shows the question screen in place of this one
+			ApplicationFrame.showQuestionScreen(characterHierarchy.size());
 			
 		}
 		
 	}
-	
-	// method to sort map by values 
-    public static HashMap<String, Double> sortByValue(HashMap<String, Double> unorderedMap) 
-    { 
-        // Create a sortList from elements of HashMap 
-        LinkedList<Map.Entry<String, Double>> sortList = 
-               new LinkedList<Map.Entry<String, Double> >(unorderedMap.entrySet()); 
-  
-        // Sort the sortList 
-        Collections.sort(sortList, new Comparator<Map.Entry<String, Double>>() { 
-            public int compare(Map.Entry<String, Double> value1, Map.Entry<String, Double> value2) { 
-            	
-                return (value1.getValue()).compareTo(value2.getValue()); 
-                
-            } 
-        }); 
-        
-        // reverse the sorted list
-        Collections.reverse(sortList);
-          
-        // put data from sortList to a new hash map
-        HashMap<String, Double> orderedMap = new LinkedHashMap<String, Double>(); 
-        
-        // iterate though the sorted list and put it inside the new map
-        for (Map.Entry<String, Double> pair : sortList) { 
-            orderedMap.put(pair.getKey(), pair.getValue()); 
-        } 
-
-        return orderedMap; 
-        
-    }
 
 }
@@ -5,67 +5,68 @@ import java.awt.event.ActionListener;
 
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
-import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import utils.AudioPlayer;
 import utils.CustomizationTool;
+import utils.IconCache;
 
 /*
  * Author: Alan Sun
  * 
  * Help Screen displays the help information for the program
  * Uses static methods from the CustomizationTool class that applies to all screens
- * Extends JFrame and implements ActionListener for button controls
+ * Created once and shown in the application frame, closing it shows the screen it was opened from again
+ * Extends JPanel and implements ActionListener for button controls
  */
-public class HelpScreen extends JFrame implements ActionListener {
+public class HelpScreen extends JPanel implements ActionListener {
 	
 	// image icons used in this frame
 	private ImageIcon[] helpScreens = new ImageIcon[6];
-	private ImageIcon nextIcon = new ImageIcon("utility/next.png");
-	private ImageIcon backIcon = new ImageIcon("utility/back.png");
 	
 	// index tracking the current help screen
 	private int currentHelpIndex = 0;
 	
-	// JComponents used in this frame
-	private JPanel panel = new JPanel();
-	private JLabel screenLabel = new JLabel(new ImageIcon("utility/help0.png"));
-	private JButton nextButton = new JButton(new ImageIcon(nextIcon.getImage().getScaledInstance(
-			nextIcon.getIconWidth()/3, nextIcon.getIconHeight()/3, 0)));
-	private JButton backButton = new JButton(new ImageIcon(backIcon.getImage().getScaledInstance(
-			backIcon.getIconWidth()/3, backIcon.getIconHeight()/3, 0)));
+	// JComponents used in this screen
+	private JLabel screenLabel = new JLabel(IconCache.getIcon("utility/help0.png"));
+	private JButton nextButton = new JButton(IconCache.getScaledIcon("utility/next.png", 3));
+	private JButton backButton = new JButton(IconCache.getScaledIcon("utility/back.png", 3));
 	
 	// constructor of help screen calls other methods
 	public HelpScreen() {
 		
 		addHelpScreens();
 		addJComponents();
-		CustomizationTool.addMenuBar(this);
-		CustomizationTool.frameSetUp(this);
-		CustomizationTool.setCustomCursor(this);
 		
 	}
 	
-	// method that adds other JComponents to the frame
+	// method that brings the help screen back to its first page
+	public void reset() {
+		
+		currentHelpIndex = 0;
+		screenLabel.setIcon(helpScreens[currentHelpIndex]);
+		
+	}
+	
+	// method that adds other JComponents to the panel
 	private void addJComponents() {
 		
-		CustomizationTool.panelSetUp(this, panel);
+		CustomizationTool.panelSetUp(this);
 		
 		// set the location and size of this JComponent, enable button action, and add it to the panel
 		nextButton.setBounds(CustomizationTool.programWidth - 170, CustomizationTool.programHeight - 100, 
 				nextButton.getIcon().getIconWidth(), nextButton.getIcon().getIconHeight());
 		nextButton.addActionListener(this);
-		panel.add(nextButton);
+		add(nextButton);
 		
 		backButton.setBounds(50, CustomizationTool.programHeight - 100, 
 				backButton.getIcon().getIconWidth(), backButton.getIcon().getIconHeight());
 		backButton.addActionListener(this);
-		panel.add(backButton);
+		add(backButton);
 		
 		screenLabel.setBounds(0, -30, CustomizationTool.programWidth, CustomizationTool.programHeight);
-		panel.add(screenLabel);
+		add(screenLabel);
 		
 		
 		
@@ -76,7 +77,7 @@ public class HelpScreen extends JFrame implements ActionListener {
 		
 		for(int i = 0; i < 6; i++) {
 			
-			helpScreens[i] = new ImageIcon("utility/help" + i + ".png");
+			helpScreens[i] = IconCache.getIcon("utility/help" + i + ".png");
 			
 		}
 		
@@ -101,14 +102,14 @@ public class HelpScreen extends JFrame implements ActionListener {
 				screenLabel.setIcon(helpScreens[currentHelpIndex]);
 
 				// repaint the panel just in case image didn't update
-				panel.repaint();
+				repaint();
 				
 			}
 			
 			else {
 				
-				// if all informations have been read, then close this frame
-				this.dispose();
+				// if all informations have been read, then close this screen
+				ApplicationFrame.closeHelpScreen();
 				
 			}
 			
@@ -127,13 +128,13 @@ public class HelpScreen extends JFrame implements ActionListener {
 				
 				screenLabel.setIcon(helpScreens[currentHelpIndex]);
 
-				panel.repaint();
+				repaint();
 				
 			}
 			
 			else {
 				
-				this.dispose();
+				ApplicationFrame.closeHelpScreen();
 				
 			}
 			
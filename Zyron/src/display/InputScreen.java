@@ -8,26 +8,22 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
-import java.util.Map;
 
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
-import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.SwingConstants;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
+import recognition.GlyphBitmap;
+import recognition.Recognizer;
 import utils.AudioPlayer;
 import utils.CustomizationTool;
+import utils.IconCache;
 
 /*
  * Author: Alan Sun
@@ -35,13 +31,11 @@ import utils.CustomizationTool;
  * Input Screen class allows the user to input a jpg file with written text to be converted to digital text
  * Uses multidimensional arrays and hash maps to perform pattern recognition
  * Uses static methods from the CustomizationTool class that applies to all screens
- * Uses a customized comparator to sort the <Character, Double> hash map
- * Extends JFrame and implements ActionListener for button controls
+ * Uses a Recognition Job to compare each character with the stored patterns without blocking the screen
+ * Created once and reset every time it is shown in the application frame, so a new word never builds a new screen
+ * Extends JPanel and implements ActionListener for button controls and RecognitionListener for conversion updates
  */
-public class InputScreen extends JFrame implements ActionListener {
-	
-	// pattern directory array is used to store all the folders from 'a' to 'z'
-	private static final File[] patternDirectory = new File[26];
+public class InputScreen extends JPanel implements ActionListener, RecognitionJob.RecognitionListener {
 	
 	// variable that tracks what percentage of files are converted
 	private int percentageCharacterConverted;
@@ -50,42 +44,57 @@ public class InputScreen extends JFrame implements ActionListener {
 	private File inputFile;
 	private BufferedImage inputImage;
 	private ArrayList<BufferedImage> wordList = new ArrayList<BufferedImage>();
-	private ArrayList<HashMap<Character, Double>> characterHierarchy = new ArrayList<HashMap<Character, Double>>();
-	private ArrayList<boolean[][]> inputPixels = new ArrayList<boolean[][]>();
-
-	// image icon variables to be used for JComponents
-	private ImageIcon convertIcon = new ImageIcon("utility/convert.png");
-	private ImageIcon inputIcon = new ImageIcon("utility/input.png");
-	private ImageIcon loadingIcon = new ImageIcon("utility/loading.gif");
-	private ImageIcon loadingTitleIcon = new ImageIcon("utility/loadingIcon.png");
+	private ArrayList<GlyphBitmap> inputPixels = new ArrayList<GlyphBitmap>();
 	
-	// JComponents
-	private JPanel panel = new JPanel();
+	// job converting the characters in the background and the best letter of every character converted so far
+	private RecognitionJob recognitionJob;
+	private StringBuilder convertedLetters = new StringBuilder();
+
+	// file chooser kept between files, so it opens in the folder the last file was chosen from
+	private JFileChooser chooser;
+
+	// JComponents, the icons are shared with the other screens
 	private JButton selectButton = new JButton("click to choose file");
-	private JButton convertButton = new JButton(new ImageIcon(convertIcon.getImage().getScaledInstance(
-			convertIcon.getIconWidth()/3, convertIcon.getIconHeight()/3, 0)));
-	private JLabel inputLabel = new JLabel(new ImageIcon(inputIcon.getImage().getScaledInstance(
-			inputIcon.getIconWidth()/3, inputIcon.getIconHeight()/3, 0)));
-	private JLabel loadingLabel = new JLabel(new ImageIcon(loadingIcon.getImage().getScaledInstance(
-			CustomizationTool.programWidth, CustomizationTool.programHeight, 0)));
+	private JButton convertButton = new JButton(IconCache.getScaledIcon("utility/convert.png", 3));
+	private JLabel inputLabel = new JLabel(IconCache.getScaledIcon("utility/input.png", 3));
+	private JLabel loadingLabel = new JLabel(IconCache.getIcon("utility/loading.gif", CustomizationTool.programWidth,
+			CustomizationTool.programHeight));
 	private JLabel loadingPercentageLabel = new JLabel();
+	private JButton cancelButton = new JButton(IconCache.getScaledIcon("utility/back.png", 3));
 
 	// constructor of input screen calls other methods
 	public InputScreen() {
 
 		// other methods being called
 		addJComponents();
-		CustomizationTool.addMenuBar(this);
-		CustomizationTool.frameSetUp(this);
-		CustomizationTool.setCustomCursor(this);
 		
 	}
 
-	// method that adds all the JComponents to the frame
+	// method that cancels a conversion still running and brings the screen back to the state it starts in, with no file selected
+	public void reset() {
+		
+		// the job is forgotten before it is cancelled, so whatever it still reports is ignored
+		RecognitionJob cancelledJob = recognitionJob;
+		recognitionJob = null;
+		
+		if (cancelledJob != null)
+			cancelledJob.cancel(false);
+		
+		inputFile = null;
+		inputImage = null;
+		wordList = new ArrayList<BufferedImage>();
+		inputPixels.clear();
+		
+		selectButton.setIcon(null);
+		showInputControls();
+		
+	}
+
+	// method that adds all the JComponents to the panel
 	private void addJComponents() {
 
 		// set up the panel by using the static method in the Customization tool
-		CustomizationTool.panelSetUp(this, panel);
+		CustomizationTool.panelSetUp(this);
 		
 		// set the location and size of this JComponent
 		selectButton.setBounds(CustomizationTool.programWidth / 2 - CustomizationTool.selectButtonDimension / 2,
@@ -96,17 +105,17 @@ public class InputScreen extends JFrame implements ActionListener {
 		selectButton.addActionListener(this);
 		
 		// add this JComponent to the panels
-		panel.add(selectButton);
+		add(selectButton);
 
 		convertButton.setBounds(CustomizationTool.programWidth/2 - convertButton.getIcon().getIconWidth()/2, 620, 
 				convertButton.getIcon().getIconWidth(), convertButton.getIcon().getIconHeight());
 
 		convertButton.addActionListener(this);
-		panel.add(convertButton);
+		add(convertButton);
 		
 		inputLabel.setBounds(CustomizationTool.programWidth/2 - inputLabel.getIcon().getIconWidth()/2, 75, 
 				inputLabel.getIcon().getIconWidth(), inputLabel.getIcon().getIconHeight());
-		panel.add(inputLabel);
+		add(inputLabel);
 		
 		loadingPercentageLabel.setBounds(CustomizationTool.programWidth / 2 - 250, CustomizationTool.programHeight - 150, 500, 50);
 		
@@ -115,7 +124,12 @@ public class InputScreen extends JFrame implements ActionListener {
 		loadingPercentageLabel.setForeground(Color.WHITE);
 		loadingPercentageLabel.setHorizontalAlignment(SwingConstants.CENTER);
 		
-		panel.add(loadingPercentageLabel);
+		add(loadingPercentageLabel);
+		
+		// the cancel button is only given a size while a conversion is running
+		cancelButton.setBounds(0, 0, 0, 0);
+		cancelButton.addActionListener(this);
+		add(cancelButton);
 
 	}
 
@@ -130,14 +144,18 @@ public class InputScreen extends JFrame implements ActionListener {
 			if(CustomizationTool.audioPlaying)
 				AudioPlayer.playAudio("utility/button.wav");
 			
-			// attach a file chooser to the button with file filters
-			JFileChooser chooser = new JFileChooser();
-			FileNameExtensionFilter fileFilter = new FileNameExtensionFilter("jpg files", 
-					"jpg");
-			chooser.setFileFilter(fileFilter);
-			
-			// disable select options for other file types besides jpg
-			chooser.setAcceptAllFileFilterUsed(false);
+			// attach a file chooser to the button with file filters, created the first time a file is chosen
+			if (chooser == null) {
+				
+				chooser = new JFileChooser();
+				FileNameExtensionFilter fileFilter = new FileNameExtensionFilter("jpg files", 
+						"jpg");
+				chooser.setFileFilter(fileFilter);
+				
+				// disable select options for other file types besides jpg
+				chooser.setAcceptAllFileFilterUsed(false);
+				
+			}
 			
 			// open the file chooser and store the file type as an integer
 			int selectedFile = chooser.showOpenDialog(this);
@@ -153,27 +171,18 @@ public class InputScreen extends JFrame implements ActionListener {
 				// try and catch to see if file being read in exist
 				try {
 
-					BufferedImage loadedImage = ImageIO.read(inputFile);
+					BufferedImage loadedImage = Recognizer.readImage(inputFile);
 					
 					// the input image is a resized version of the loaded image to fit the button size
 					inputImage = CustomizationTool.resize(loadedImage, CustomizationTool.selectButtonDimension, CustomizationTool.selectButtonDimension);
 					
-					// break the inputed word into characters
-					wordList = CustomizationTool.loadWord(loadedImage);
-					
-					// loop through each character to crop the character from the file and resize it
-					for(int i = 0; i < wordList.size(); i++) {
-						
-						wordList.set(i, CustomizationTool.resize(CustomizationTool.cropToFit(CustomizationTool.resize(wordList.get(i), 
-								CustomizationTool.selectButtonDimension, CustomizationTool.selectButtonDimension)), 
-								CustomizationTool.selectButtonDimension, CustomizationTool.selectButtonDimension));
-
-					}
+					// break the inputed word into characters, then crop and resize each character
+					wordList = Recognizer.normalizeWord(loadedImage);
 					
 					selectButton.setIcon(new ImageIcon(inputImage));
 					
 					// repaint the panel just in case image change didn't update
-					panel.repaint();
+					repaint();
 					
 					// fill the base variables in the lists for the input image
 					fillMatchingPixels();
@@ -205,28 +214,22 @@ public class InputScreen extends JFrame implements ActionListener {
 			// test if input file exist
 			if (inputFile != null) {
 				
-				inputLabel.setIcon(new ImageIcon(loadingTitleIcon.getImage().getScaledInstance(
-						loadingTitleIcon.getIconWidth()/3, loadingTitleIcon.getIconHeight()/3, 0)));
+				inputLabel.setIcon(IconCache.getScaledIcon("utility/loadingIcon.png", 3));
 				
 				selectButton.setBounds(0, 0, 0, 0);
 				
 				convertButton.setBounds(0, 0, 0, 0);
 
 				loadingLabel.setBounds(0, 0, loadingLabel.getIcon().getIconWidth(), loadingLabel.getIcon().getIconHeight());
-				panel.add(loadingLabel);
+				add(loadingLabel);
+				
+				cancelButton.setBounds(50, CustomizationTool.programHeight - 100, 
+						cancelButton.getIcon().getIconWidth(), cancelButton.getIcon().getIconHeight());
 				
 				// repaint the panel just in case image change didn't update
-				panel.repaint();
+				repaint();
 				
-				// delay 500 milliseconds for the gif to load during conversion
-				new java.util.Timer().schedule(new java.util.TimerTask() {
-					@Override
-					public void run() {
-
-						startConversion();
-
-					}
-				}, 500);
+				startConversion();
 				
 			} 
 			
@@ -241,151 +244,120 @@ public class InputScreen extends JFrame implements ActionListener {
 
 		}
 
+		else if (event.getSource() == cancelButton) {
+
+			if(CustomizationTool.audioPlaying)
+				AudioPlayer.playAudio("utility/button.wav");
+			
+			// the job reports back through conversionCancelled once it has stopped, it is not interrupted
+			// so a first conversion that is still loading the patterns never leaves them half loaded
+			if (recognitionJob != null)
+				recognitionJob.cancel(false);
+
+		}
+
 	}
 
-	// method that creates a hash map and a 2D boolean pattern array for each character inputed
+	// method that creates a packed glyph pattern for each character inputed
 	private void fillMatchingPixels() {
 
-		// traverse through all characters in the text and 
-		for(int i = 0; i < wordList.size(); i++) {
-			
-			characterHierarchy.add(new HashMap<Character, Double>());
-			
-			for (int j = 0; j < 26; j++)
-				
-				characterHierarchy.get(i).put((char) (97 + j), 0.0);
-			
-			inputPixels.add(CustomizationTool.to2DBoolean(wordList.get(i)));
+		// forget the characters of a file selected before
+		inputPixels.clear();
+		
+		// traverse through all characters in the text and pack each of them into a glyph
+		for(int i = 0; i < wordList.size(); i++)
 			
-		}
+			inputPixels.add(GlyphBitmap.fromImage(wordList.get(i)));
 
 	}
 
-	// method that converts each character of the inputed text to a suspected word and opens a new assumption screen
+	// method that starts a job converting each character of the inputed text in the background
 	private void startConversion() {
 		
-		// for loop looping though every character in the inputed text to detect patterns 
-		for(int i = 0; i < characterHierarchy.size(); i++) {
-			
-			// calculates what percentage of text is converted and set the label to that number
-			percentageCharacterConverted = (int)Math.round((double)(i+1)/characterHierarchy.size() * 100);
-			
-			// display different text at different conversion percentage
-			if(percentageCharacterConverted != 100)
-				
-				loadingPercentageLabel.setText(percentageCharacterConverted + "% characters converted");
-			
-			else
-				
-				loadingPercentageLabel.setText(percentageCharacterConverted + "% finishing...");
+		convertedLetters.setLength(0);
+		loadingPercentageLabel.setText("converting " + inputPixels.size() + " characters...");
+		
+		recognitionJob = new RecognitionJob(inputPixels, this);
+		recognitionJob.start();
+		
+	}
+	
+	// Override method from RecognitionListener, displays the best letter of a character as soon as it is converted
+	@Override
+	public void characterConverted(RecognitionJob job, int characterIndex, int characterCount, HashMap<Character, Double> letterRanking) {
+		
+		// a job this screen no longer waits for is ignored
+		if (job != recognitionJob)
+			return;
+		
+		// the ranking is sorted, so its first key is the best letter
+		convertedLetters.append(letterRanking.keySet().iterator().next());
+		
+		// calculates what percentage of text is converted and set the label to that number
+		percentageCharacterConverted = (int)Math.round((double)(characterIndex+1)/characterCount * 100);
+		
+		// display different text at different conversion percentage
+		if(percentageCharacterConverted != 100)
 			
-			// store a percentage match map for the current character
-			characterHierarchy.set(i, fillMap(characterHierarchy.get(i), inputPixels.get(i)));
+			loadingPercentageLabel.setText(percentageCharacterConverted + "% converted: " + convertedLetters);
+		
+		else
 			
-		}
+			loadingPercentageLabel.setText(percentageCharacterConverted + "% finishing...");
+		
+	}
+	
+	// Override method from RecognitionListener, shows the assumption screen in place of this one
+	@Override
+	public void conversionFinished(RecognitionJob job, ArrayList<HashMap<Character, Double>> characterHierarchy) {
+		
+		// a job that finished just before this screen was reset never opens the assumption screen
+		if (job != recognitionJob)
+			return;
+		
+		recognitionJob = null;
 		
-		//opens the assumption screen and closes this frame
-		new AssumptionScreen(this, characterHierarchy);
-		this.dispose();
+		ApplicationFrame.showAssumptionScreen(characterHierarchy);
 		
 	}
 	
-	// method that fills a hash map with keys from 'a' to 'z' and values with the max percentage pixel matched
-	private HashMap<Character, Double> fillMap(HashMap<Character, Double> characterHierarchy, boolean[][] inputPixels) {
+	// Override method from RecognitionListener, brings back the input controls so another conversion can be started
+	@Override
+	public void conversionCancelled(RecognitionJob job) {
 		
-		// creating a for loop to compare all 26 characters in the alphabet with the input image
-		for (int i = 0; i < 26; i++) {
-
-			char currentCharacter = (char) (97 + i);
-			patternDirectory[i] = new File("images/" + currentCharacter);
-
-			// initialize a variable that keeps track of the current character matching count
-			int numPixelMatchCount = 0;
-
-			// makes sure the the directory being accessed is available
-			if (patternDirectory[i].isDirectory()) { 
-
-				// loop through every existing file within the directory
-				for (File file : patternDirectory[i].listFiles(CustomizationTool.imageFilter)) {
-
-					// try and catch to ensure that the image being loaded exist
-					try {
-
-						BufferedImage loadedImage = ImageIO.read(file);
-
-						// resize the current image to a square to be displayed on the selecct button
-						BufferedImage resizedImage = CustomizationTool.resize(loadedImage, CustomizationTool.selectButtonDimension, CustomizationTool.selectButtonDimension);
-
-						// crop the image and scale it to make all the sides touch the wall
-						BufferedImage croppedImage = CustomizationTool.resize(CustomizationTool.cropToFit(resizedImage),
-								CustomizationTool.selectButtonDimension, CustomizationTool.selectButtonDimension);
-						
-						// convert to a boolean array to be compared with
-						boolean orderedMapPixels[][] = CustomizationTool.to2DBoolean(croppedImage);
-
-						// nested for loop to count the pixels matched
-						for (int x = 0; x < orderedMapPixels.length; x++)
-							for (int y = 0; y < orderedMapPixels[i].length; y++)
-								if (inputPixels[x][y] == orderedMapPixels[x][y])
-
-									numPixelMatchCount++;
-
-						double percentageMatch = (double) numPixelMatchCount / CustomizationTool.totalPixels * 100;
-						
-						// if the new match percentage is higher, replace the old one
-						if (characterHierarchy.get(currentCharacter) < percentageMatch) 
-							characterHierarchy.put(currentCharacter, percentageMatch);
-
-						numPixelMatchCount = 0;
-
-					} catch (IOException error) {
-
-						System.out.println("error in loading in buffered image");
-
-					}
-
-				}
-
-			}
-
-		}
+		if (job != recognitionJob)
+			return;
 		
-		return characterHierarchy = sortByValue(characterHierarchy);
+		recognitionJob = null;
+		showInputControls();
+		
+	}
+	
+	// method that brings back the input controls in place of the loading animation
+	private void showInputControls() {
+		
+		inputLabel.setIcon(IconCache.getScaledIcon("utility/input.png", 3));
+		
+		selectButton.setBounds(CustomizationTool.programWidth / 2 - CustomizationTool.selectButtonDimension / 2,
+				CustomizationTool.programHeight / 2 - CustomizationTool.selectButtonDimension / 2, CustomizationTool.selectButtonDimension,
+				CustomizationTool.selectButtonDimension);
+		
+		convertButton.setBounds(CustomizationTool.programWidth/2 - convertButton.getIcon().getIconWidth()/2, 620, 
+				convertButton.getIcon().getIconWidth(), convertButton.getIcon().getIconHeight());
+		
+		cancelButton.setBounds(0, 0, 0, 0);
+		remove(loadingLabel);
+		loadingPercentageLabel.setText("");
+		
+		repaint();
 		
 	}
 	
-	// method that sorts a hash map with character as key and double as value in descending order
-    private HashMap<Character, Double> sortByValue(HashMap<Character, Double> unorderedMap) { 
-        
-    	// Create a sortList from elements of HashMap 
-        LinkedList<Map.Entry<Character, Double>> sortList = 
-               new LinkedList<Map.Entry<Character, Double> >(unorderedMap.entrySet()); 
-  
-        // Sort the sortList 
-        Collections.sort(sortList, new Comparator<Map.Entry<Character, Double> >() { 
-            public int compare(Map.Entry<Character, Double> value1, Map.Entry<Character, Double> value2) { 
-            	
-                return (value1.getValue()).compareTo(value2.getValue()); 
-                
-            } 
-        }); 
-        
-        // reverse the sorted list
-        Collections.reverse(sortList);
-          
-        // put data from sortList to a new hash map
-        HashMap<Character, Double> orderedMap = new LinkedHashMap<Character, Double>(); 
-        
-        // loop through the sorted map to put all the keys and values into a new map to be returned
-        for (Map.Entry<Character, Double> pair : sortList) { 
-            orderedMap.put(pair.getKey(), pair.getValue()); 
-        } 
-
-        return orderedMap; 
-        
-    }
-
     //getters and setters
+	public File getInputFile() {
+		return inputFile;
+	}
+
 	public BufferedImage getInputImage() {
 		return inputImage;
 	}
@@ -1,62 +1,93 @@
 package display;
 
 import java.awt.Color;
+import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
-import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+import recognition.WarmUpService;
 
 import utils.AudioPlayer;
 import utils.CustomizationTool;
+import utils.IconCache;
 
 /*
  * Author: Alan Sun
  * 
  * The Intro Screen class guides the user to proceed to the input screen by providing simple instructions
  * Uses static methods from the CustomizationTool class
- * Extends JFrame and implements ActionListener for button controls
+ * Created once and shown in the application frame every time the program returns to the menu
+ * Shows the progress of the recognition warm up started by the launcher
+ * Extends JPanel and implements ActionListener for button controls
  */
-public class IntroScreen extends JFrame implements ActionListener {
-	
-	// image icon variables to be used for JComponents
-	private ImageIcon beginIcon = new ImageIcon("utility/begin.png");
-	private ImageIcon logoIcon = new ImageIcon("utility/logo.png");
-	private ImageIcon headingIcon = new ImageIcon("utility/heading.png");
-	private ImageIcon helpIcon = new ImageIcon("utility/help.png");
-	private ImageIcon exitIcon = new ImageIcon("utility/exit.png");
+public class IntroScreen extends JPanel implements ActionListener {
 	
-	// JComponent declarations
-	private JPanel panel = new JPanel();
-	private JButton startButton  = new JButton(new ImageIcon(beginIcon.getImage().getScaledInstance(
-			beginIcon.getIconWidth()/3, beginIcon.getIconHeight()/3, 0)));
-	private JButton helpButton  = new JButton(new ImageIcon(helpIcon.getImage().getScaledInstance(
-			helpIcon.getIconWidth()/3, helpIcon.getIconHeight()/3, 0)));
-	private JButton exitButton  = new JButton(new ImageIcon(exitIcon.getImage().getScaledInstance(
-			exitIcon.getIconWidth()/3, exitIcon.getIconHeight()/3, 0)));
-	private JLabel logo = new JLabel(logoIcon);
-	private JLabel heading = new JLabel(new ImageIcon(headingIcon.getImage().getScaledInstance(
-			headingIcon.getIconWidth()/2, headingIcon.getIconHeight()/2, 0)));
+	// JComponent declarations, the icons are shared with the other screens
+	private JButton startButton  = new JButton(IconCache.getScaledIcon("utility/begin.png", 3));
+	private JButton helpButton  = new JButton(IconCache.getScaledIcon("utility/help.png", 3));
+	private JButton exitButton  = new JButton(IconCache.getScaledIcon("utility/exit.png", 3));
+	private JLabel logo = new JLabel(IconCache.getIcon("utility/logo.png"));
+	private JLabel heading = new JLabel(IconCache.getScaledIcon("utility/heading.png", 2));
+	private JLabel warmUpLabel = new JLabel();
 	
 	// constructor of intro screen calls other methods
 	public IntroScreen() {
 		
 		addJComponents();
-		CustomizationTool.addMenuBar(this);
-		CustomizationTool.frameSetUp(this);
-		CustomizationTool.setCustomCursor(this);
-		CustomizationTool.playBackgroundMusic();
+		showWarmUp();
+		
+	}
+	
+	// method that keeps the warm up label up to date, the label stays empty if the warm up was never started
+	private void showWarmUp() {
+		
+		if (!CustomizationTool.backgroundWarmUp)
+			return;
+		
+		WarmUpService.addListener(new WarmUpService.WarmUpListener() {
+			@Override
+			public void warmUpProgressed(String stage, int percentage) {
+				
+				// the listener is called on the warm up threads, the label is changed on the event dispatch thread
+				// with the latest progress, since the steps of the two warm up threads may arrive out of order
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						
+						setWarmUpText(WarmUpService.getStage(), WarmUpService.getProgress());
+						
+					}
+				});
+				
+			}
+		});
+		
+		setWarmUpText(WarmUpService.getStage(), WarmUpService.getProgress());
+		
+	}
+	
+	// method that displays what the warm up is doing and how much of it is done
+	private void setWarmUpText(String stage, int percentage) {
+		
+		if (WarmUpService.isFinished())
+			warmUpLabel.setText("recognition " + stage);
+		
+		else
+			warmUpLabel.setText("preparing recognition " + percentage + "%: " + stage);
 		
 	}
 	
-	// method that adds all the JComponents to the frame
+	// method that adds all the JComponents to the panel
 	private void addJComponents() {
 		
 		// set up the panel by using the static method in the Customization tool
-		CustomizationTool.panelSetUp(this, panel);
+		CustomizationTool.panelSetUp(this);
 
 		// set the location and size of this JComponent
 		startButton.setBounds(CustomizationTool.programWidth/2 - startButton.getIcon().getIconWidth()/2, 430, 
@@ -66,25 +97,32 @@ public class IntroScreen extends JFrame implements ActionListener {
 		startButton.addActionListener(this);
 		
 		// add this JComponent to the panel
-		panel.add(startButton);
+		add(startButton);
 		
 		helpButton.setBounds(CustomizationTool.programWidth/2 - helpButton.getIcon().getIconWidth()/2, 500, 
 		helpButton.getIcon().getIconWidth(), helpButton.getIcon().getIconHeight());
 		helpButton.addActionListener(this);
-		panel.add(helpButton);
+		add(helpButton);
 		
 		exitButton.setBounds(CustomizationTool.programWidth/2 - exitButton.getIcon().getIconWidth()/2, 570, 
 		exitButton.getIcon().getIconWidth(), exitButton.getIcon().getIconHeight());
 		exitButton.addActionListener(this);
-		panel.add(exitButton);
+		add(exitButton);
 				
 		heading.setBounds(CustomizationTool.programWidth/2 - heading.getIcon().getIconWidth()/2, 300,
 				heading.getIcon().getIconWidth(), heading.getIcon().getIconHeight());
-		panel.add(heading);
+		add(heading);
 		
 		logo.setBounds(CustomizationTool.programWidth/2 - logo.getIcon().getIconWidth()/2, 150,
 				logo.getIcon().getIconWidth(), logo.getIcon().getIconHeight());
-		panel.add(logo);
+		add(logo);
+		
+		// set a small font in gray so the warm up label stays out of the way
+		warmUpLabel.setBounds(0, 640, CustomizationTool.programWidth, 30);
+		warmUpLabel.setFont(new Font("Book Antiqua", Font.ITALIC, 16));
+		warmUpLabel.setForeground(Color.GRAY);
+		warmUpLabel.setHorizontalAlignment(SwingConstants.CENTER);
+		add(warmUpLabel);
 		
 	}
 	
@@ -99,9 +137,8 @@ public class IntroScreen extends JFrame implements ActionListener {
 			if(CustomizationTool.audioPlaying)
 				AudioPlayer.playAudio("utility/button.wav");
 			
-			// create a input screen and close the current frame
-			new InputScreen();
-			this.dispose();
+			// show the input screen in place of this one
+			ApplicationFrame.showInputScreen();
 			
 		}
 		
@@ -110,8 +147,8 @@ public class IntroScreen extends JFrame implements ActionListener {
 			if(CustomizationTool.audioPlaying)
 				AudioPlayer.playAudio("utility/button.wav");
 			
-			// opens a new help screen
-			new HelpScreen();
+			// shows the help screen, which returns to this one once it is closed
+			ApplicationFrame.showHelpScreen();
 			
 		}
 		
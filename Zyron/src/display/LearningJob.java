@@ -0,0 +1,68 @@
+package display;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+
+import recognition.TemplateCache;
+
+/*
+ * Learning Job class saves the characters of a word as patterns of their letters on a background thread
+ * Every character of the word is saved together, so the template store is written once per word and the screens never wait for it
+ * Jobs run on the executor of the recognition jobs, so a conversion started after a word is saved always matches with its patterns
+ */
+public class LearningJob extends SwingWorker<Integer, Void> {
+
+	// word selected for the input image, the images of its characters and the name of the input file they come from
+	private final String word;
+	private final ArrayList<BufferedImage> characterImages;
+	private final String source;
+
+	// constructor taking in the word and its characters, the list is copied since the input screen is emptied right after
+	public LearningJob(String word, ArrayList<BufferedImage> characterImages, String source) {
+
+		this.word = word;
+		this.characterImages = new ArrayList<BufferedImage>(characterImages);
+		this.source = source;
+
+	}
+
+	// method that submits the job to the executor shared with the recognition jobs
+	public void start() {
+
+		RecognitionJob.executor.execute(this);
+
+	}
+
+	// method that saves every character on the executor thread and returns the number of patterns added
+	@Override
+	protected Integer doInBackground() throws IOException {
+
+		return TemplateCache.addTemplates(word, characterImages, source);
+
+	}
+
+	// method that reports a word that could not be saved, called on the event dispatch thread
+	@Override
+	protected void done() {
+
+		try {
+
+			get();
+
+		} catch (InterruptedException error) {
+
+			Thread.currentThread().interrupt();
+
+		} catch (ExecutionException error) {
+
+			System.out.println("learned patterns could not be saved: " + error.getCause().getMessage());
+
+		}
+
+	}
+
+}
@@ -4,18 +4,10 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.Scanner;
 
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
-import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
@@ -24,8 +16,10 @@ import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
 import javax.swing.text.StyledDocument;
 
+import recognition.Dictionary;
 import utils.AudioPlayer;
 import utils.CustomizationTool;
+import utils.IconCache;
 
 /*
  * Author: Alan Sun
@@ -33,21 +27,15 @@ import utils.CustomizationTool;
  * Question Screen displays up to 10 top guesses for the word inputed
  * Uses static methods from the CustomizationTool class that applies to all screens
  * Uses a customized comparator to sort the <String, Double> hash map
- * Extends JFrame and implements ActionListener for button controls
+ * Created once and cleared every time it is shown in the application frame
+ * Extends JPanel and implements ActionListener for button controls
  */
-public class QuestionScreen extends JFrame implements ActionListener {
+public class QuestionScreen extends JPanel implements ActionListener {
 
-	// image icons used in this frame
-	private ImageIcon submitIcon = new ImageIcon("utility/submit.png");
-	private ImageIcon fixLabelIcon = new ImageIcon("utility/write.png");
-
-	// JComponents used in this frame
-	private JPanel panel = new JPanel();
+	// JComponents used in this screen, the icons are shared with the other screens
 	private JTextPane correctWord = new JTextPane();
-	private JButton submitButton = new JButton(new ImageIcon(
-			submitIcon.getImage().getScaledInstance(submitIcon.getIconWidth() / 3, submitIcon.getIconHeight() / 3, 0)));
-	private JLabel fixLabel = new JLabel(new ImageIcon(fixLabelIcon.getImage()
-			.getScaledInstance(fixLabelIcon.getIconWidth() / 3, fixLabelIcon.getIconHeight() / 3, 0)));
+	private JButton submitButton = new JButton(IconCache.getScaledIcon("utility/submit.png", 3));
+	private JLabel fixLabel = new JLabel(IconCache.getScaledIcon("utility/write.png", 3));
 
 	// size variables that are used a lot in this frame
 	private int textAreaWidth = 800;
@@ -57,31 +45,27 @@ public class QuestionScreen extends JFrame implements ActionListener {
 	private int suspectedWordLength;
 	private ArrayList<Character> availableCharacters = new ArrayList<Character>();
 
-	// input screen object used to get passed information
-	private InputScreen inputScreen;
-	
-	// scanner used to read the dictionary text file
-	private Scanner dictionary;
-
-	// constructor taking in 2 parameters, initializes variables, and calls other methods
-	public QuestionScreen(InputScreen inputScreen, int suspectedWordLength) {
-
-		this.inputScreen = inputScreen;
-		this.suspectedWordLength = suspectedWordLength;
+	// constructor of question screen calls other methods
+	public QuestionScreen() {
 
 		addJComponents();
-		CustomizationTool.addMenuBar(this);
-		CustomizationTool.frameSetUp(this);
-		CustomizationTool.setCustomCursor(this);
 		fillAvaliableCharacters();
 
 	}
 
-	// method that adds other JComponents to the frame
+	// method that empties the text pane and sets the length of the word to be written
+	public void reset(int suspectedWordLength) {
+
+		this.suspectedWordLength = suspectedWordLength;
+		correctWord.setText("");
+
+	}
+
+	// method that adds other JComponents to the panel
 	private void addJComponents() {
 
 		// set up the panel by using the static method in the Customization tool
-		CustomizationTool.panelSetUp(this, panel);
+		CustomizationTool.panelSetUp(this);
 
 		// places this component and set the size and font
 		correctWord.setBounds(CustomizationTool.programWidth / 2 - textAreaWidth / 2,
@@ -95,7 +79,7 @@ public class QuestionScreen extends JFrame implements ActionListener {
 		styledDoc.setParagraphAttributes(0, styledDoc.getLength(), center, false);
 		
 		// add this component to the panel
-		panel.add(correctWord);
+		add(correctWord);
 
 		submitButton.setBounds(CustomizationTool.programWidth / 2 - submitButton.getIcon().getIconWidth() / 2,
 				CustomizationTool.programHeight - 200, submitButton.getIcon().getIconWidth(),
@@ -103,11 +87,11 @@ public class QuestionScreen extends JFrame implements ActionListener {
 		
 		// enable button action on this frame for this JComponent
 		submitButton.addActionListener(this);
-		panel.add(submitButton);
+		add(submitButton);
 
 		fixLabel.setBounds(CustomizationTool.programWidth / 2 - fixLabel.getIcon().getIconWidth() / 2, 100,
 				fixLabel.getIcon().getIconWidth(), fixLabel.getIcon().getIconHeight());
-		panel.add(fixLabel);
+		add(fixLabel);
 
 	}
 
@@ -160,36 +144,11 @@ public class QuestionScreen extends JFrame implements ActionListener {
 
 			} else {
 				
-				// try and catch to see if dictionary file exist when loading from scanner
+				// try and catch to see if the dictionary file exist when adding the word
 				try {
 					
-					boolean found = false;
-					
-					dictionary = new Scanner(new File("utility/dictionary.txt"));
-					
-					// loop though every word in the dictionary to see if the word inputed is a real word
-					while(dictionary.hasNext()) {
-	
-						if(dictionary.nextLine().equals(correctWord.getText())) {
-							
-							found = true;
-							break;
-							
-						}
-						
-					}
-					
-					// if word is not found, then add it to the dictionary using a print writer
-					if(!found) {
-						
-						PrintWriter printWriter = new PrintWriter(new BufferedWriter(new FileWriter("utility/dictionary.txt", true)));
-
-						printWriter.println(correctWord.getText());
-						
-		                printWriter.close();
-						
-					}
-						
+					// if word is not found in the dictionary, then add it to the dictionary
+					Dictionary.addWord(correctWord.getText());
 					
 				} 
 				
@@ -199,9 +158,8 @@ public class QuestionScreen extends JFrame implements ActionListener {
 					
 				}
 
-				// opens the result screen and closes this 
-				new ResultScreen(inputScreen, correctWord.getText());
-				this.dispose();
+				// shows the result screen in place of this one
+				ApplicationFrame.showResultScreen(correctWord.getText());
 
 			}
 
@@ -0,0 +1,155 @@
+package display;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.SwingWorker;
+
+import recognition.GlyphBitmap;
+import recognition.Recognizer;
+
+/*
+ * Recognition Job class converts the characters of a word on a background thread and reports back on the event dispatch thread
+ * Each character is matched with the stored patterns one after the other, and its letter ranking is published as soon as it is ready
+ * Jobs run one at a time on a single executor shared by the program, so clicking convert never creates a new thread
+ * A job can be cancelled at any time, it then stops before the next character and only reports that it was cancelled,
+ * the character being matched is never interrupted, so a first conversion loading the patterns always loads them completely
+ */
+public class RecognitionJob extends SwingWorker<ArrayList<HashMap<Character, Double>>, RecognitionJob.CharacterResult> {
+
+	// executor running every recognition job, and every learning job so a conversion always sees the patterns saved before it,
+	// its thread is a daemon so it never keeps the program open
+	static final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable, "recognition-job");
+			thread.setDaemon(true);
+
+			return thread;
+
+		}
+	});
+
+	// packed glyphs of the characters to convert
+	private final ArrayList<GlyphBitmap> inputPixels;
+
+	// object told about the progress of the job, always called on the event dispatch thread
+	private final RecognitionListener listener;
+
+	// constructor taking in the characters to convert and the listener of the job
+	public RecognitionJob(ArrayList<GlyphBitmap> inputPixels, RecognitionListener listener) {
+
+		this.inputPixels = new ArrayList<GlyphBitmap>(inputPixels);
+		this.listener = listener;
+
+	}
+
+	// method that submits the job to the shared executor
+	public void start() {
+
+		executor.execute(this);
+
+	}
+
+	// method that matches every character on the executor thread and publishes each ranking when it is done
+	@Override
+	protected ArrayList<HashMap<Character, Double>> doInBackground() {
+
+		ArrayList<HashMap<Character, Double>> characterHierarchy = Recognizer.createHierarchy(inputPixels.size());
+
+		for (int i = 0; i < characterHierarchy.size(); i++) {
+
+			if (isCancelled())
+				return null;
+
+			Recognizer.matchCharacter(characterHierarchy, inputPixels, i);
+
+			publish(new CharacterResult(i, characterHierarchy.get(i)));
+			setProgress((int) Math.round((double) (i + 1) / characterHierarchy.size() * 100));
+
+		}
+
+		return characterHierarchy;
+
+	}
+
+	// method that passes the published rankings to the listener on the event dispatch thread
+	@Override
+	protected void process(List<CharacterResult> characterResults) {
+
+		if (isCancelled())
+			return;
+
+		for (CharacterResult characterResult : characterResults)
+			listener.characterConverted(this, characterResult.getCharacterIndex(), inputPixels.size(), characterResult.getLetterRanking());
+
+	}
+
+	// method that tells the listener how the job ended, on the event dispatch thread
+	@Override
+	protected void done() {
+
+		try {
+
+			listener.conversionFinished(this, get());
+
+		} catch (CancellationException error) {
+
+			listener.conversionCancelled(this);
+
+		} catch (InterruptedException | ExecutionException error) {
+
+			System.out.println("conversion failed: " + error.getCause());
+			listener.conversionCancelled(this);
+
+		}
+
+	}
+
+	// letter ranking of one character, published as soon as the character is converted
+	public static class CharacterResult {
+
+		private final int characterIndex;
+		private final HashMap<Character, Double> letterRanking;
+
+		private CharacterResult(int characterIndex, HashMap<Character, Double> letterRanking) {
+
+			this.characterIndex = characterIndex;
+			this.letterRanking = letterRanking;
+
+		}
+
+		// getters
+		public int getCharacterIndex() {
+			return characterIndex;
+		}
+
+		public HashMap<Character, Double> getLetterRanking() {
+			return letterRanking;
+		}
+
+	}
+
+	// interface implemented by the screens that start a job, every method is called on the event dispatch thread
+	// with the job calling it, so a screen can ignore a job it has already replaced or given up on
+	public interface RecognitionListener {
+
+		// called with the letter ranking of a character, sorted in descending order, as soon as the character is converted
+		void characterConverted(RecognitionJob job, int characterIndex, int characterCount, HashMap<Character, Double> letterRanking);
+
+		// called once every character is converted
+		void conversionFinished(RecognitionJob job, ArrayList<HashMap<Character, Double>> characterHierarchy);
+
+		// called if the job was cancelled or failed
+		void conversionCancelled(RecognitionJob job);
+
+	}
+
+}
@@ -4,17 +4,16 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.File;
 
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
-import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SwingConstants;
 
 import utils.AudioPlayer;
 import utils.CustomizationTool;
+import utils.IconCache;
 
 /*
  * Author: Alan Sun
@@ -22,23 +21,17 @@ import utils.CustomizationTool;
  * Question Screen displays up to 10 top guesses for the word inputed
  * Uses static methods from the CustomizationTool class that applies to all screens
  * Uses a customized comparator to sort the <String, Double> hash map
- * Extends JFrame and implements ActionListener for button controls
+ * Created once and shown in the application frame with the input image and the word selected for it
+ * Extends JPanel and implements ActionListener for button controls
  */
-public class ResultScreen extends JFrame implements ActionListener {
+public class ResultScreen extends JPanel implements ActionListener {
 	
 	// variable that keeps track of the selected word
 	private String selectedWord;
 	
-	// image icons used in this frame
-	private ImageIcon saveIcon = new ImageIcon("utility/save.png");
-	private ImageIcon disposeIcon = new ImageIcon("utility/dispose.png");
-	private ImageIcon exportIcon = new ImageIcon("utility/export.png");
-
-	// JComponents used in this frame
-	private JPanel panel = new JPanel();
+	// JComponents used in this screen, the icons are shared with the other screens
 	private JLabel selectedCharacterLabel;
-	private JLabel exportLabel = new JLabel(new ImageIcon(exportIcon.getImage().getScaledInstance(
-			exportIcon.getIconWidth()/3, exportIcon.getIconHeight()/3, 0)));
+	private JLabel exportLabel = new JLabel(IconCache.getScaledIcon("utility/export.png", 3));
 	private JLabel wordLabel;
 	private JButton saveButton;
 	private JButton disposeButton;
@@ -46,27 +39,33 @@ public class ResultScreen extends JFrame implements ActionListener {
 	// input screen object used to get passed information
 	private InputScreen inputScreen;
 
-	// constructor of result screen takes in input screen, correct char variable, and calls other methods
-	public ResultScreen(InputScreen inputScreen, String selectedWord) {
+	// constructor of result screen takes in input screen and calls other methods
+	public ResultScreen(InputScreen inputScreen) {
 
-		this.selectedWord = selectedWord;
 		this.inputScreen = inputScreen;
 
 		addJComponents();
-		CustomizationTool.addMenuBar(this);
-		CustomizationTool.frameSetUp(this);
-		CustomizationTool.setCustomCursor(this);
 
 	}
 
-	// method that adds other JComponents to the frame
+	// method that shows the image of the input screen with the word selected for it
+	public void showWord(String selectedWord) {
+
+		this.selectedWord = selectedWord;
+
+		selectedCharacterLabel.setIcon(new ImageIcon(inputScreen.getInputImage()));
+		wordLabel.setText("text: " + selectedWord);
+
+	}
+
+	// method that adds other JComponents to the panel
 	private void addJComponents() {
 
 		// set up the panel by using the static method in the Customization tool
-		CustomizationTool.panelSetUp(this, panel);
+		CustomizationTool.panelSetUp(this);
 
 		// create a new JLabel, set a custom font, center on screen, set foreground color, and set location and size
-		selectedCharacterLabel = new JLabel(new ImageIcon(inputScreen.getInputImage()));
+		selectedCharacterLabel = new JLabel();
 		selectedCharacterLabel.setFont(new Font("Book Antiqua", Font.ITALIC | Font.BOLD, 300));
 		selectedCharacterLabel.setHorizontalAlignment(SwingConstants.CENTER);
 		selectedCharacterLabel.setForeground(Color.WHITE);
@@ -76,36 +75,34 @@ public class ResultScreen extends JFrame implements ActionListener {
 				CustomizationTool.selectButtonDimension);
 		
 		// add this component to the panel
-		panel.add(selectedCharacterLabel);
+		add(selectedCharacterLabel);
 		
-		wordLabel = new JLabel("text: " + selectedWord);
+		wordLabel = new JLabel();
 		wordLabel.setBounds(0, 115, CustomizationTool.programWidth, 50);
 		wordLabel.setFont(new Font("Book Antiqua", Font.ITALIC, 18));
 		wordLabel.setHorizontalAlignment(SwingConstants.CENTER);
 		wordLabel.setForeground(Color.WHITE);
 		wordLabel.setBackground(Color.BLACK);
 		wordLabel.setOpaque(true);
-		panel.add(wordLabel);
+		add(wordLabel);
 		
 		exportLabel.setBounds(CustomizationTool.programWidth/2 - exportLabel.getIcon().getIconWidth()/2, 75, 
 				exportLabel.getIcon().getIconWidth(), exportLabel.getIcon().getIconHeight());
-		panel.add(exportLabel);
+		add(exportLabel);
 
-		saveButton = new JButton(new ImageIcon(saveIcon.getImage().getScaledInstance(
-				saveIcon.getIconWidth()/3, saveIcon.getIconHeight()/3, 0)));
+		saveButton = new JButton(IconCache.getScaledIcon("utility/save.png", 3));
 		saveButton.setBounds(CustomizationTool.programWidth/2 - saveButton.getIcon().getIconWidth() - 100, 620, 
 				saveButton.getIcon().getIconWidth(), saveButton.getIcon().getIconHeight());
 		
 		// enable button action on this frame for this JComponent
 		saveButton.addActionListener(this);
-		panel.add(saveButton);
+		add(saveButton);
 		
-		disposeButton = new JButton(new ImageIcon(disposeIcon.getImage().getScaledInstance(
-				disposeIcon.getIconWidth()/3, disposeIcon.getIconHeight()/3, 0)));
+		disposeButton = new JButton(IconCache.getScaledIcon("utility/dispose.png", 3));
 		disposeButton.setBounds(CustomizationTool.programWidth/2 + 30, 625, 
 				disposeButton.getIcon().getIconWidth(), disposeButton.getIcon().getIconHeight());
 		disposeButton.addActionListener(this);
-		panel.add(disposeButton);
+		add(disposeButton);
 		
 	}
 
@@ -119,19 +116,11 @@ public class ResultScreen extends JFrame implements ActionListener {
 			if(CustomizationTool.audioPlaying)
 				AudioPlayer.playAudio("utility/button.wav");
 			
-			// loop through every character for the inputed word
-			for(int i = 0; i < inputScreen.getWordList().size(); i++) {
-			
-				// save that character at that character's directory 
-				CustomizationTool.exportFile(inputScreen.getWordList().get(i), 
-						"images/"+ selectedWord.charAt(i) + "/" + selectedWord.charAt(i) + "-" + trackImage(selectedWord.charAt(i)) + ".jpg");
+			// save every character of the word as the next pattern of its letter in the background, ready for the next conversion
+			new LearningJob(selectedWord, inputScreen.getWordList(), inputScreen.getInputFile().getName()).start();
 			
-			}
-			
-			// opens the input screen and closes this frame and the input screen taken in
-			new InputScreen();
-			inputScreen.dispose();
-			this.dispose();
+			// shows the input screen emptied for the next file in place of this one
+			ApplicationFrame.showInputScreen();
 			
 		}
 		
@@ -141,39 +130,11 @@ public class ResultScreen extends JFrame implements ActionListener {
 			if(CustomizationTool.audioPlaying)
 				AudioPlayer.playAudio("utility/button.wav");
 			
-			// opens the input screen and closes this frame and the input screen taken in
-			new InputScreen();
-			inputScreen.dispose();
-			this.dispose();
-			
-		}
-		
-	}
-	
-	// method that tracks what is the next number to save for character in parameter to avoid files with duplicate names
-	private int trackImage(char characterIndex) {
-
-		int newOutputIndex = 0;
-		
-		// location to save the character
-		File tempFolder = new File("images/" + characterIndex);
-		
-		// test if the location exist
-		if (tempFolder.isDirectory()) { // make sure it's a directory
-
-			// for every file in the directory of the character passed in, find the last file number and return it
-			for (File tempFile : tempFolder.listFiles(CustomizationTool.imageFilter)) {
-				
-				String inputFileLocation = tempFile.getAbsolutePath();
-
-				newOutputIndex = Math.max(newOutputIndex, (int)(inputFileLocation.charAt(inputFileLocation.length() - 5))-48);
-
-			}
+			// shows the input screen emptied for the next file in place of this one
+			ApplicationFrame.showInputScreen();
 			
 		}
 		
-		return newOutputIndex+1;
-		
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package launcher;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import recognition.DocumentRecognizer;
+import recognition.RecognitionResult;
+import recognition.Recognizer;
+import recognition.ResultCache;
+import recognition.TemplateCache;
+import recognition.WordRegion;
+import utils.CustomizationTool;
+
+/*
+ * Batch Recognizer is a command line launcher that recognizes images without opening any screen
+ * Takes a jpg file or a directory of jpg files and writes one line of JSON per image
+ * Reports how many images were recognized per second once every image is done
+ * In document mode every image is a page, and one line of JSON is written per word in reading order as soon as it is recognized
+ *
+ * usage: BatchRecognizer <image or directory> [--output file] [--top count] [--parallelism threads] [--serial] [--coarse-to-fine] [--metric-tree]
+ * 	[--prototypes count] [--document]
+ */
+public class BatchRecognizer {
+
+	// main method executes when program runs, reads the arguments and recognizes every image
+	public static void main(String[] args) {
+
+		// no window is ever opened by this launcher
+		System.setProperty("java.awt.headless", "true");
+
+		if (args.length == 0) {
+
+			System.err.println("usage: BatchRecognizer <image or directory> [--output file] [--top count] "
+					+ "[--parallelism threads] [--serial] [--coarse-to-fine] [--metric-tree] [--prototypes count] [--document]");
+			System.exit(1);
+
+		}
+
+		File input = new File(args[0]);
+		File outputFile = null;
+		int topChoiceCount = Recognizer.defaultTopChoiceCount;
+		boolean documentMode = false;
+
+		// read the optional arguments
+		for (int i = 1; i < args.length; i++) {
+
+			if (args[i].equals("--output") && i + 1 < args.length)
+				outputFile = new File(args[++i]);
+			else if (args[i].equals("--top") && i + 1 < args.length)
+				topChoiceCount = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--parallelism") && i + 1 < args.length)
+				CustomizationTool.recognitionParallelism = Integer.parseInt(args[++i]);
+			else if (args[i].equals("--serial"))
+				CustomizationTool.parallelRecognition = false;
+			else if (args[i].equals("--coarse-to-fine"))
+				CustomizationTool.coarseToFineMatching = true;
+			else if (args[i].equals("--metric-tree"))
+				CustomizationTool.metricTreeMatching = true;
+			else if (args[i].equals("--document"))
+				documentMode = true;
+			else if (args[i].equals("--prototypes") && i + 1 < args.length) {
+
+				CustomizationTool.prototypeCompaction = true;
+				CustomizationTool.prototypesPerLetter = Integer.parseInt(args[++i]);
+
+			}
+			else
+				System.err.println("unknown argument ignored: " + args[i]);
+
+		}
+
+		try {
+
+			ArrayList<File> imageFiles = listImages(input);
+
+			try (PrintStream output = outputFile == null ? new PrintStream(System.out, true, "UTF-8")
+					: new PrintStream(outputFile, "UTF-8")) {
+
+				// templates are loaded before the timer starts so the throughput only measures recognition
+				TemplateCache.loadAllTemplates();
+
+				long startTime = System.nanoTime();
+				int recognizedCount = 0;
+
+				for (File imageFile : imageFiles) {
+
+					try {
+
+						if (documentMode) {
+
+							// every word is written as soon as it and the words before it are recognized
+							recognizedCount += DocumentRecognizer.recognize(imageFile.getName(), Recognizer.readImage(imageFile),
+									topChoiceCount, new DocumentRecognizer.WordListener() {
+										@Override
+										public void wordRecognized(WordRegion wordRegion, RecognitionResult result) {
+
+											output.println(result.toJson());
+
+										}
+									});
+
+						} else {
+
+							RecognitionResult result = Recognizer.recognize(imageFile, topChoiceCount);
+							output.println(result.toJson());
+							recognizedCount++;
+
+						}
+
+					} catch (IOException | RuntimeException error) {
+
+						System.err.println("could not recognize " + imageFile + ": " + error.getMessage());
+
+					} catch (InterruptedException error) {
+
+						System.err.println("recognition interrupted");
+						break;
+
+					}
+
+				}
+
+				double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+				String unit = documentMode ? "words" : "images";
+
+				System.err.printf("%d %s in %.3f s (%.2f %s/sec)%n", recognizedCount, unit, elapsedSeconds,
+						recognizedCount / Math.max(elapsedSeconds, 1e-9), unit);
+
+				if (CustomizationTool.resultCaching)
+					System.err.println(ResultCache.getStatistics());
+
+			}
+
+		} catch (IOException error) {
+
+			System.err.println(error.getMessage());
+			System.exit(1);
+
+		}
+
+	}
+
+	// method that returns the image itself or every image of the directory sorted by name
+	private static ArrayList<File> listImages(File input) throws FileNotFoundException {
+
+		if (input.isFile())
+			return new ArrayList<File>(Arrays.asList(input));
+
+		File[] imageFiles = input.listFiles(CustomizationTool.imageFilter);
+
+		if (imageFiles == null)
+			throw new FileNotFoundException("no image or directory found: " + input);
+
+		Arrays.sort(imageFiles);
+
+		return new ArrayList<File>(Arrays.asList(imageFiles));
+
+	}
+
+}
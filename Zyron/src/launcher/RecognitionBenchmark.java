@@ -0,0 +1,308 @@
+package launcher;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import recognition.Dictionary;
+import recognition.GlyphBitmap;
+import recognition.Recognizer;
+import recognition.TemplateCache;
+import utils.CustomizationTool;
+
+/*
+ * Recognition Benchmark is a command line launcher that measures every stage of the recognition on fixed fixtures
+ * The fixtures are the words in the 'pre-stored Images' folder and the templates stored in the images folder
+ * Each stage is warmed up first, then run for a fixed time on a single thread and reported with its throughput,
+ * average time and the number of bytes allocated per operation (from the thread allocation counter of the JVM)
+ * The template store can be grown or shrunk by repeating the stored templates, and the dictionary can be grown
+ * with generated words, so the cost of each stage can be measured against the size of the store
+ *
+ * usage: RecognitionBenchmark [--stage name] [--templates count] [--words count] [--prototypes count] [--warmup seconds]
+ * 	[--time seconds]
+ * 	stages: cropToFit, to2DBoolean, loadWord, fillMap, getTopChoices (all of them by default)
+ */
+public class RecognitionBenchmark {
+
+	// names of the stages that can be measured
+	private static final String[] stageNames = new String[] {"cropToFit", "to2DBoolean", "loadWord", "fillMap", "getTopChoices"};
+
+	// result of every operation is added here so that the JIT compiler cannot remove the work being measured
+	private static volatile long blackhole;
+
+	// fixtures shared by the stages
+	private static ArrayList<BufferedImage> wordImages = new ArrayList<BufferedImage>();
+	private static ArrayList<BufferedImage> resizedCharacters = new ArrayList<BufferedImage>();
+	private static ArrayList<BufferedImage> normalizedCharacters = new ArrayList<BufferedImage>();
+	private static ArrayList<GlyphBitmap> characterGlyphs = new ArrayList<GlyphBitmap>();
+	private static ArrayList<ArrayList<HashMap<Character, Double>>> characterHierarchies = new ArrayList<ArrayList<HashMap<Character, Double>>>();
+
+	// main method executes when program runs, prepares the fixtures and measures the selected stages
+	public static void main(String[] args) throws IOException {
+
+		System.setProperty("java.awt.headless", "true");
+
+		String selectedStage = "all";
+		int templateCount = -1;
+		int wordCount = -1;
+		int prototypeCount = -1;
+		double warmupSeconds = 2;
+		double measureSeconds = 5;
+
+		// read the optional arguments
+		for (int i = 0; i + 1 < args.length; i += 2) {
+
+			if (args[i].equals("--stage"))
+				selectedStage = args[i + 1];
+			else if (args[i].equals("--templates"))
+				templateCount = Integer.parseInt(args[i + 1]);
+			else if (args[i].equals("--words"))
+				wordCount = Integer.parseInt(args[i + 1]);
+			else if (args[i].equals("--prototypes"))
+				prototypeCount = Integer.parseInt(args[i + 1]);
+			else if (args[i].equals("--warmup"))
+				warmupSeconds = Double.parseDouble(args[i + 1]);
+			else if (args[i].equals("--time"))
+				measureSeconds = Double.parseDouble(args[i + 1]);
+			else
+				System.err.println("unknown argument ignored: " + args[i]);
+
+		}
+
+		// every stage measures a single thread
+		CustomizationTool.parallelRecognition = false;
+
+		TemplateCache.loadAllTemplates();
+
+		if (templateCount >= 0)
+			resizeTemplateStore(templateCount);
+
+		if (wordCount >= 0)
+			resizeDictionary(wordCount);
+
+		// the stored templates are clustered after the store is resized
+		if (prototypeCount >= 0) {
+
+			CustomizationTool.prototypeCompaction = true;
+			CustomizationTool.prototypesPerLetter = prototypeCount;
+
+		}
+
+		loadFixtures();
+
+		System.out.printf("%-14s %10s %12s %12s %14s %12s%n", "stage", "templates", "words", "ops/s", "ms/op", "bytes/op");
+
+		for (String stageName : stageNames)
+			if (selectedStage.equals("all") || selectedStage.equals(stageName))
+
+				measure(stageName, warmupSeconds, measureSeconds);
+
+	}
+
+	// method that reads the word images and prepares the input of every stage
+	private static void loadFixtures() throws IOException {
+
+		File[] imageFiles = new File("pre-stored Images").listFiles(CustomizationTool.imageFilter);
+
+		if (imageFiles == null)
+			throw new IOException("the 'pre-stored Images' folder is needed to run the benchmark");
+
+		Arrays.sort(imageFiles);
+
+		for (File imageFile : imageFiles) {
+
+			BufferedImage wordImage = ImageIO.read(imageFile);
+			wordImages.add(wordImage);
+
+			ArrayList<GlyphBitmap> wordGlyphs = new ArrayList<GlyphBitmap>();
+
+			for (BufferedImage characterImage : CustomizationTool.loadWord(wordImage)) {
+
+				resizedCharacters.add(CustomizationTool.resize(characterImage, CustomizationTool.selectButtonDimension,
+						CustomizationTool.selectButtonDimension));
+
+				BufferedImage normalizedCharacter = CustomizationTool.normalizeCharacter(characterImage);
+				normalizedCharacters.add(normalizedCharacter);
+
+				GlyphBitmap glyph = GlyphBitmap.fromImage(normalizedCharacter);
+				characterGlyphs.add(glyph);
+				wordGlyphs.add(glyph);
+
+			}
+
+			ArrayList<HashMap<Character, Double>> characterHierarchy = Recognizer.createHierarchy(wordGlyphs.size());
+			Recognizer.fillMaps(characterHierarchy, wordGlyphs);
+			characterHierarchies.add(characterHierarchy);
+
+		}
+
+	}
+
+	// method that repeats or drops stored templates so that the store holds the given number of templates
+	private static void resizeTemplateStore(int templateCount) {
+
+		ArrayList<GlyphBitmap> storedTemplates = new ArrayList<GlyphBitmap>();
+		ArrayList<Character> storedLetters = new ArrayList<Character>();
+
+		for (int i = 0; i < 26; i++) {
+
+			for (GlyphBitmap template : TemplateCache.getTemplates((char) (97 + i))) {
+
+				storedTemplates.add(template);
+				storedLetters.add((char) (97 + i));
+
+			}
+
+		}
+
+		HashMap<Character, ArrayList<GlyphBitmap>> resizedStore = new HashMap<Character, ArrayList<GlyphBitmap>>();
+
+		for (int i = 0; i < 26; i++)
+			resizedStore.put((char) (97 + i), new ArrayList<GlyphBitmap>());
+
+		for (int i = 0; i < templateCount && !storedTemplates.isEmpty(); i++)
+			resizedStore.get(storedLetters.get(i % storedTemplates.size())).add(storedTemplates.get(i % storedTemplates.size()));
+
+		TemplateCache.replaceTemplates(resizedStore);
+
+	}
+
+	// method that keeps the first words of the dictionary or adds generated words until it has the given size
+	private static void resizeDictionary(int wordCount) throws IOException {
+
+		List<String> dictionaryWords = Files.readAllLines(new File(Dictionary.dictionaryLocation).toPath(), Charset.defaultCharset());
+		ArrayList<String> resizedWords = new ArrayList<String>(dictionaryWords.subList(0, Math.min(wordCount, dictionaryWords.size())));
+
+		// generated words keep the length of a real word but change its letters, always in the same way
+		Random random = new Random(0);
+
+		while (resizedWords.size() < wordCount && !dictionaryWords.isEmpty()) {
+
+			char[] generatedWord = dictionaryWords.get(random.nextInt(dictionaryWords.size())).toCharArray();
+
+			for (int i = 0; i < generatedWord.length; i++)
+				if (random.nextInt(3) == 0)
+
+					generatedWord[i] = (char) ('a' + random.nextInt(26));
+
+			resizedWords.add(new String(generatedWord));
+
+		}
+
+		Dictionary.loadWords(resizedWords);
+
+	}
+
+	// method that warms up and measures one stage, then prints its results
+	private static void measure(String stageName, double warmupSeconds, double measureSeconds) {
+
+		runFor(stageName, warmupSeconds);
+
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+		long startTime = System.nanoTime();
+
+		long operations = runFor(stageName, measureSeconds);
+
+		long elapsedTime = System.nanoTime() - startTime;
+		long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+		System.out.printf("%-14s %10d %12s %12.2f %14.4f %12d%n", stageName, countTemplates(), countWords(),
+				operations / (elapsedTime / 1e9), elapsedTime / 1e6 / operations, allocatedBytes / operations);
+
+	}
+
+	// method that runs a stage over its fixtures again and again for the given time and returns the number of operations
+	private static long runFor(String stageName, double seconds) {
+
+		long endTime = System.nanoTime() + (long) (seconds * 1e9);
+		long operations = 0;
+		long checksum = 0;
+
+		do {
+
+			checksum += runOnce(stageName, (int) (operations % getFixtureCount(stageName)));
+			operations++;
+
+		} while (System.nanoTime() < endTime);
+
+		blackhole += checksum;
+
+		return operations;
+
+	}
+
+	// method that runs a stage once on one fixture and returns a value that depends on its result
+	private static long runOnce(String stageName, int fixture) {
+
+		switch (stageName) {
+
+		case "cropToFit":
+			return CustomizationTool.cropToFit(resizedCharacters.get(fixture)).getWidth();
+
+		case "to2DBoolean":
+			return CustomizationTool.to2DBoolean(normalizedCharacters.get(fixture))[fixture % 400][fixture % 400] ? 1 : 0;
+
+		case "loadWord":
+			return CustomizationTool.loadWord(wordImages.get(fixture)).size();
+
+		case "fillMap":
+			return Recognizer.fillMap(Recognizer.createHierarchy(1).get(0), characterGlyphs.get(fixture)).keySet().iterator().next();
+
+		case "getTopChoices":
+			return Recognizer.getTopChoices(characterHierarchies.get(fixture), Recognizer.defaultTopChoiceCount).size();
+
+		default:
+			throw new IllegalArgumentException("unknown stage: " + stageName);
+
+		}
+
+	}
+
+	// method that returns how many different inputs a stage cycles through
+	private static int getFixtureCount(String stageName) {
+
+		if (stageName.equals("loadWord") || stageName.equals("getTopChoices"))
+			return wordImages.size();
+
+		return characterGlyphs.size();
+
+	}
+
+	// method that counts the templates in the store
+	private static int countTemplates() {
+
+		int templateCount = 0;
+
+		for (int i = 0; i < 26; i++)
+			templateCount += TemplateCache.getTemplates((char) (97 + i)).size();
+
+		return templateCount;
+
+	}
+
+	// method that counts the words scored by the dictionary stage
+	private static String countWords() {
+
+		int wordCount = 0;
+
+		for (ArrayList<HashMap<Character, Double>> characterHierarchy : characterHierarchies)
+			wordCount += Dictionary.countWords(characterHierarchy.size());
+
+		return wordCount / Math.max(1, characterHierarchies.size()) + "/word";
+
+	}
+
+}
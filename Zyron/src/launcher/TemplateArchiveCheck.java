@@ -0,0 +1,380 @@
+package launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+
+import recognition.GlyphBitmap;
+import recognition.TemplateArchive;
+import recognition.TemplateIndex;
+import utils.CustomizationTool;
+
+/*
+ * Template Archive Check is a command line launcher that makes sure the template archive and template index files read back
+ * exactly what was written, without opening any screen
+ * Works on a copy of the pattern files in a temporary directory, so the images directory and its archive are never changed
+ * Checks that an import holds the glyphs of the index, that a record torn while it was appended is removed when the archive
+ * is opened again, that an archive written with other normalization settings is refused while the index is rebuilt for them,
+ * that exporting then importing the archive gives the same glyphs bit for bit without writing any pattern twice,
+ * and that changed pattern files are imported again
+ * Prints every check and exits with an error if one of them failed
+ *
+ * usage: TemplateArchiveCheck [--images directory]
+ */
+public class TemplateArchiveCheck {
+
+	// number of checks that failed so far
+	private static int failedCount;
+
+	// main method executes when program runs, copies the pattern files and runs every check on the copy
+	public static void main(String[] args) {
+
+		// no window is ever opened by this launcher
+		System.setProperty("java.awt.headless", "true");
+
+		File imageDirectory = new File("images");
+
+		// read the optional arguments
+		for (int i = 0; i < args.length; i++) {
+
+			if (args[i].equals("--images") && i + 1 < args.length)
+				imageDirectory = new File(args[++i]);
+			else
+				System.err.println("unknown argument ignored: " + args[i]);
+
+		}
+
+		File workDirectory = null;
+
+		try {
+
+			workDirectory = Files.createTempDirectory("zyron-archive-check").toFile();
+			File patternDirectory = new File(workDirectory, "images");
+			int patternCount = copyPatternFiles(imageDirectory, patternDirectory);
+
+			if (patternCount == 0) {
+
+				System.err.println("no pattern files found in " + imageDirectory);
+				System.exit(1);
+
+			}
+
+			File archiveFile = new File(workDirectory, "templates.zta");
+
+			checkImport(patternDirectory, archiveFile, patternCount);
+			checkTornRecord(archiveFile);
+			checkHeaderMismatch(patternDirectory, archiveFile, patternCount);
+			checkExportImport(patternDirectory, archiveFile, new File(workDirectory, "exported"));
+			checkDirectoryChange(patternDirectory, archiveFile);
+
+		} catch (IOException error) {
+
+			System.err.println("template archive check error: " + error);
+			failedCount++;
+
+		} finally {
+
+			if (workDirectory != null)
+				delete(workDirectory);
+
+		}
+
+		if (failedCount > 0) {
+
+			System.err.println(failedCount + " template archive checks failed");
+			System.exit(1);
+
+		}
+
+		System.out.println("every template archive check passed");
+
+	}
+
+	// method that checks that an imported archive holds every pattern of the index, in the same order and bit for bit
+	private static void checkImport(File patternDirectory, File archiveFile, int patternCount) throws IOException {
+
+		TemplateArchive archive = TemplateArchive.importDirectory(patternDirectory, archiveFile);
+		TemplateIndex templateIndex = TemplateIndex.open(patternDirectory, new File(patternDirectory, "templates.idx"));
+
+		boolean same = archive.size() == patternCount && templateIndex.size() == patternCount
+				&& archive.getImportedCount() == patternCount
+				&& archive.getDirectoryFingerprint() == TemplateIndex.getDirectoryFingerprint(patternDirectory);
+
+		for (int i = 0; same && i < patternCount; i++)
+			same = archive.getLetter(i) == templateIndex.getLetter(i) && sameWords(archive.getGlyph(i), templateIndex.getGlyph(i));
+
+		report(same, "import holds the " + patternCount + " patterns of the index");
+
+	}
+
+	// method that checks that a record cut off in its header or in its glyph is removed, and the complete records are kept
+	private static void checkTornRecord(File archiveFile) throws IOException {
+
+		TemplateArchive archive = TemplateArchive.open(archiveFile);
+		int completeCount = archive.size() + 1;
+
+		archive.append('q', 1, "first learned.jpg", archive.getGlyph(0));
+		long completeLength = archiveFile.length();
+
+		archive.append('r', 2, "second learned.jpg", archive.getGlyph(1));
+		long fullLength = archiveFile.length();
+
+		// the record is cut once inside its header and once inside its glyph words
+		long[] tornLengths = { completeLength + 5, fullLength - 3 };
+
+		for (long tornLength : tornLengths) {
+
+			File tornFile = new File(archiveFile.getPath() + ".torn");
+			Files.copy(archiveFile.toPath(), tornFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+			try (RandomAccessFile file = new RandomAccessFile(tornFile, "rw")) {
+
+				file.setLength(tornLength);
+
+			}
+
+			TemplateArchive reopened = TemplateArchive.open(tornFile);
+
+			boolean same = reopened.size() == completeCount && tornFile.length() == completeLength
+					&& reopened.getLetter(completeCount - 1) == 'q' && reopened.getSource(completeCount - 1).equals("first learned.jpg");
+
+			for (int i = 0; same && i < completeCount; i++)
+				same = sameWords(reopened.getGlyph(i), archive.getGlyph(i));
+
+			// the next record is appended right after the last complete one
+			reopened.append('s', 3, "third learned.jpg", archive.getGlyph(2));
+			TemplateArchive appended = TemplateArchive.open(tornFile);
+
+			same = same && appended.size() == completeCount + 1 && appended.getLetter(completeCount) == 's'
+					&& sameWords(appended.getGlyph(completeCount), archive.getGlyph(2));
+
+			report(same, "record torn " + (tornLength - completeLength) + " bytes in is removed and appending continues");
+
+			tornFile.delete();
+
+		}
+
+	}
+
+	// method that checks that an archive written with another dark value is refused, and that the index is rebuilt instead,
+	// which is what the template cache falls back to
+	private static void checkHeaderMismatch(File patternDirectory, File archiveFile, int patternCount) {
+
+		int darkValue = CustomizationTool.darkValue;
+		CustomizationTool.darkValue = darkValue + 1;
+
+		try {
+
+			boolean refused = false;
+
+			try {
+
+				TemplateArchive.open(archiveFile);
+
+			} catch (IOException error) {
+
+				refused = true;
+
+			}
+
+			report(refused, "archive written with another dark value is refused");
+
+			TemplateIndex templateIndex = TemplateIndex.open(patternDirectory, new File(patternDirectory, "templates.idx"));
+			report(templateIndex.size() == patternCount, "index is rebuilt for the other dark value");
+
+		} finally {
+
+			CustomizationTool.darkValue = darkValue;
+
+		}
+
+	}
+
+	// method that checks that exporting the archive into the directory it was imported from and importing that directory again
+	// gives the same glyphs bit for bit, and that exporting the imported archive once more changes nothing
+	private static void checkExportImport(File patternDirectory, File archiveFile, File exportDirectory) throws IOException {
+
+		// the export directory already holds every imported pattern, like the images directory the archive comes from
+		copyPatternFiles(patternDirectory, exportDirectory);
+		File exportedArchiveFile = new File(exportDirectory.getParentFile(), "exported.zta");
+
+		TemplateArchive archive = TemplateArchive.open(archiveFile);
+		int learnedCount = archive.size() - archive.getImportedCount();
+		int exportedCount = archive.exportDirectory(exportDirectory);
+
+		TemplateArchive imported = TemplateArchive.importDirectory(exportDirectory, exportedArchiveFile);
+
+		// the import lists the files by name, so the glyphs of every letter are compared without their order
+		boolean same = exportedCount == learnedCount && countPatternFiles(exportDirectory) == archive.size()
+				&& imported.size() == archive.size() && imported.getImportedCount() == archive.size()
+				&& countGlyphs(archive).equals(countGlyphs(imported));
+
+		report(same, "export then import gives the same " + archive.size() + " glyphs bit for bit, with the "
+				+ learnedCount + " learned ones written once");
+
+		// the imported archive has no learned patterns left, so exporting and importing it again changes nothing
+		int exportedAgainCount = TemplateArchive.openCopy(exportedArchiveFile).exportDirectory(exportDirectory);
+		TemplateArchive importedAgain = TemplateArchive.importDirectory(exportDirectory, exportedArchiveFile);
+
+		report(exportedAgainCount == 0 && countPatternFiles(exportDirectory) == archive.size() && importedAgain.size() == archive.size(),
+				"exporting the imported archive again keeps " + archive.size() + " pattern files and records");
+
+	}
+
+	// method that checks that the archive is imported again only when the pattern files change, keeping the learned records
+	private static void checkDirectoryChange(File patternDirectory, File archiveFile) throws IOException {
+
+		TemplateArchive archive = TemplateArchive.openForDirectory(patternDirectory, archiveFile);
+		int learnedCount = archive.size() - archive.getImportedCount();
+		long lastModified = archiveFile.lastModified();
+
+		TemplateArchive unchanged = TemplateArchive.openForDirectory(patternDirectory, archiveFile);
+		report(unchanged.size() == archive.size() && archiveFile.lastModified() == lastModified,
+				"unchanged pattern files are not imported again");
+
+		// a copy of the first pattern of a letter is added as a new pattern file
+		File letterDirectory = null;
+
+		for (int i = 0; letterDirectory == null && i < 26; i++)
+			if (new File(patternDirectory, String.valueOf((char) (97 + i))).isDirectory())
+
+				letterDirectory = new File(patternDirectory, String.valueOf((char) (97 + i)));
+
+		File[] letterFiles = letterDirectory.listFiles(CustomizationTool.imageFilter);
+		File addedFile = new File(letterDirectory, letterDirectory.getName() + "-999999.jpg");
+		Files.copy(letterFiles[0].toPath(), addedFile.toPath());
+
+		TemplateArchive changed = TemplateArchive.openForDirectory(patternDirectory, archiveFile);
+
+		boolean same = changed.getImportedCount() == archive.getImportedCount() + 1
+				&& changed.size() == changed.getImportedCount() + learnedCount
+				&& changed.getDirectoryFingerprint() == TemplateIndex.getDirectoryFingerprint(patternDirectory);
+
+		for (int i = 0; same && i < learnedCount; i++) {
+
+			int oldIndex = archive.getImportedCount() + i;
+			int newIndex = changed.getImportedCount() + i;
+
+			same = changed.getLetter(newIndex) == archive.getLetter(oldIndex) && changed.getSource(newIndex).equals(archive.getSource(oldIndex))
+					&& sameWords(changed.getGlyph(newIndex), archive.getGlyph(oldIndex));
+
+		}
+
+		report(same, "added pattern file is imported and the " + learnedCount + " learned records are kept");
+
+	}
+
+	// method that counts how many times every glyph appears for every letter, the key is the letter followed by the glyph words
+	private static HashMap<String, Integer> countGlyphs(TemplateArchive archive) {
+
+		HashMap<String, Integer> glyphCounts = new HashMap<String, Integer>();
+
+		for (int i = 0; i < archive.size(); i++) {
+
+			StringBuilder key = new StringBuilder().append(archive.getLetter(i));
+			LongBuffer words = archive.getGlyph(i).getWords();
+
+			for (int j = 0; j < archive.getGlyph(i).getWordCount(); j++)
+				key.append(':').append(words.get(j));
+
+			Integer count = glyphCounts.get(key.toString());
+			glyphCounts.put(key.toString(), count == null ? 1 : count + 1);
+
+		}
+
+		return glyphCounts;
+
+	}
+
+	// method that returns true if both glyphs have the same size and the same words
+	private static boolean sameWords(GlyphBitmap first, GlyphBitmap second) {
+
+		if (first.getWidth() != second.getWidth() || first.getHeight() != second.getHeight())
+			return false;
+
+		for (int i = 0; i < first.getWordCount(); i++)
+			if (first.getWords().get(i) != second.getWords().get(i))
+
+				return false;
+
+		return true;
+
+	}
+
+	// method that copies the pattern files of every letter directory, returns the number of files copied
+	private static int copyPatternFiles(File imageDirectory, File patternDirectory) throws IOException {
+
+		int copiedCount = 0;
+
+		for (int i = 0; i < 26; i++) {
+
+			File[] letterFiles = new File(imageDirectory, String.valueOf((char) (97 + i))).listFiles(CustomizationTool.imageFilter);
+
+			if (letterFiles == null)
+				continue;
+
+			File letterDirectory = new File(patternDirectory, String.valueOf((char) (97 + i)));
+
+			if (!letterDirectory.isDirectory() && !letterDirectory.mkdirs())
+				throw new IOException("directory could not be created: " + letterDirectory);
+
+			for (File letterFile : letterFiles) {
+
+				Files.copy(letterFile.toPath(), new File(letterDirectory, letterFile.getName()).toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+				copiedCount++;
+
+			}
+
+		}
+
+		return copiedCount;
+
+	}
+
+	// method that counts the pattern files of every letter directory
+	private static int countPatternFiles(File imageDirectory) {
+
+		int fileCount = 0;
+
+		for (int i = 0; i < 26; i++) {
+
+			File[] letterFiles = new File(imageDirectory, String.valueOf((char) (97 + i))).listFiles(CustomizationTool.imageFilter);
+
+			if (letterFiles != null)
+				fileCount += letterFiles.length;
+
+		}
+
+		return fileCount;
+
+	}
+
+	// method that prints the result of a check and counts it if it failed
+	private static void report(boolean passed, String description) {
+
+		System.out.println((passed ? "ok      " : "FAILED  ") + description);
+
+		if (!passed)
+			failedCount++;
+
+	}
+
+	// method that deletes a file, or a directory with everything in it
+	private static void delete(File file) {
+
+		File[] children = file.listFiles();
+
+		if (children != null)
+			for (File child : children)
+
+				delete(child);
+
+		file.delete();
+
+	}
+
+}
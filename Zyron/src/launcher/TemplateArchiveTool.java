@@ -0,0 +1,99 @@
+package launcher;
+
+import java.io.File;
+import java.io.IOException;
+
+import recognition.TemplateArchive;
+
+/*
+ * Template Archive Tool is a command line launcher that moves patterns between the images directory and the template archive
+ * import replaces the archive with every jpg pattern of the images directory
+ * export writes every learned pattern of the archive as a jpg file into the directory of its letter, after the files already there,
+ * then imports the directory again so the archive holds every exported pattern once
+ * list prints how many patterns of each letter the archive holds
+ *
+ * usage: TemplateArchiveTool <import | export | list> [--archive file] [--images directory]
+ */
+public class TemplateArchiveTool {
+
+	// main method executes when program runs, reads the arguments and runs the command
+	public static void main(String[] args) {
+
+		// no window is ever opened by this launcher
+		System.setProperty("java.awt.headless", "true");
+
+		if (args.length == 0) {
+
+			System.err.println("usage: TemplateArchiveTool <import | export | list> [--archive file] [--images directory]");
+			System.exit(1);
+
+		}
+
+		File archiveFile = new File(TemplateArchive.archiveLocation);
+		File imageDirectory = new File("images");
+
+		// read the optional arguments
+		for (int i = 1; i < args.length; i++) {
+
+			if (args[i].equals("--archive") && i + 1 < args.length)
+				archiveFile = new File(args[++i]);
+			else if (args[i].equals("--images") && i + 1 < args.length)
+				imageDirectory = new File(args[++i]);
+			else
+				System.err.println("unknown argument ignored: " + args[i]);
+
+		}
+
+		try {
+
+			long startTime = System.nanoTime();
+
+			if (args[0].equals("import")) {
+
+				TemplateArchive archive = TemplateArchive.importDirectory(imageDirectory, archiveFile);
+				System.out.println(archive.size() + " patterns imported into " + archiveFile);
+
+			} else if (args[0].equals("export")) {
+
+				// the archive is read into memory, since its file is replaced by the import that follows
+				int exportedCount = TemplateArchive.openCopy(archiveFile).exportDirectory(imageDirectory);
+				System.out.println(exportedCount + " learned patterns exported into " + imageDirectory);
+
+				// the learned patterns are now pattern files, keeping them as learned records too would load them twice
+				TemplateArchive archive = TemplateArchive.importDirectory(imageDirectory, archiveFile);
+				System.out.println(archive.size() + " patterns imported into " + archiveFile);
+
+			} else if (args[0].equals("list")) {
+
+				TemplateArchive archive = TemplateArchive.open(archiveFile);
+				int[] letterCounts = new int[26];
+
+				for (int i = 0; i < archive.size(); i++)
+					if (archive.getLetter(i) >= 'a' && archive.getLetter(i) <= 'z')
+
+						letterCounts[archive.getLetter(i) - 'a']++;
+
+				for (int i = 0; i < 26; i++)
+					System.out.println((char) (97 + i) + ": " + letterCounts[i]);
+
+				System.out.println(archive.size() + " patterns in " + archiveFile);
+
+			} else {
+
+				System.err.println("unknown command: " + args[0]);
+				System.exit(1);
+
+			}
+
+			System.err.printf("done in %.3f s%n", (System.nanoTime() - startTime) / 1e9);
+
+		} catch (IOException error) {
+
+			System.err.println("template archive error: " + error.getMessage());
+			System.exit(1);
+
+		}
+
+	}
+
+}
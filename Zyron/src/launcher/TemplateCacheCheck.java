@@ -0,0 +1,124 @@
+package launcher;
+
+import java.util.ArrayList;
+
+import recognition.GlyphBitmap;
+import recognition.GlyphPyramid;
+import recognition.TemplateCache;
+import utils.CustomizationTool;
+
+/*
+ * Template Cache Check is a command line launcher that makes sure the template cache never hands out patterns built
+ * for other settings, without opening any screen
+ * Checks that the cached pyramids of the patterns are built again when the pyramid level sizes change between two calls,
+ * whether the settings array is replaced or changed in place, and that they are reused while the level sizes stay the same
+ * Prints every check and exits with an error if one of them failed
+ *
+ * usage: TemplateCacheCheck
+ */
+public class TemplateCacheCheck {
+
+	// letter whose pyramids are checked
+	private static final char checkedLetter = 'a';
+
+	// number of checks that failed so far
+	private static int failedCount;
+
+	// main method executes when program runs, runs every check on the patterns of the images directory
+	public static void main(String[] args) {
+
+		// no window is ever opened by this launcher
+		System.setProperty("java.awt.headless", "true");
+
+		if (TemplateCache.getTemplates(checkedLetter).isEmpty()) {
+
+			System.err.println("no patterns found for '" + checkedLetter + "' in the images directory");
+			System.exit(1);
+
+		}
+
+		int[] levelSizes = CustomizationTool.pyramidLevelSizes;
+
+		try {
+
+			checkLevelSizeChange();
+
+		} finally {
+
+			CustomizationTool.pyramidLevelSizes = levelSizes;
+
+		}
+
+		if (failedCount > 0) {
+
+			System.err.println(failedCount + " template cache checks failed");
+			System.exit(1);
+
+		}
+
+		System.out.println("every template cache check passed");
+
+	}
+
+	// method that checks that the pyramids follow the level sizes between calls
+	private static void checkLevelSizeChange() {
+
+		CustomizationTool.pyramidLevelSizes = new int[] {25, 50, 100};
+		ArrayList<GlyphPyramid> firstPyramids = TemplateCache.getPyramids(checkedLetter);
+		report(matchesLevelSizes(firstPyramids), "pyramids are built with the level sizes 25, 50, 100");
+
+		// an equal array does not build the pyramids again
+		CustomizationTool.pyramidLevelSizes = new int[] {25, 50, 100};
+		report(TemplateCache.getPyramids(checkedLetter) == firstPyramids, "pyramids are reused while the level sizes stay the same");
+
+		CustomizationTool.pyramidLevelSizes = new int[] {10, 40};
+		ArrayList<GlyphPyramid> replacedPyramids = TemplateCache.getPyramids(checkedLetter);
+		report(replacedPyramids != firstPyramids && matchesLevelSizes(replacedPyramids),
+				"pyramids are built again when the level sizes are replaced with 10, 40");
+
+		CustomizationTool.pyramidLevelSizes[1] = 20;
+		ArrayList<GlyphPyramid> changedPyramids = TemplateCache.getPyramids(checkedLetter);
+		report(changedPyramids != replacedPyramids && matchesLevelSizes(changedPyramids),
+				"pyramids are built again when a level size is changed inside the array to 10, 20");
+
+	}
+
+	// method that returns true if every pyramid has the levels of the current level sizes, the same as the pyramid of an input
+	private static boolean matchesLevelSizes(ArrayList<GlyphPyramid> characterPyramids) {
+
+		ArrayList<GlyphBitmap> characterTemplates = TemplateCache.getTemplates(checkedLetter);
+		int[] levelSizes = CustomizationTool.pyramidLevelSizes;
+
+		if (characterPyramids.size() != characterTemplates.size())
+			return false;
+
+		for (int i = 0; i < characterPyramids.size(); i++) {
+
+			GlyphPyramid inputPyramid = GlyphPyramid.build(characterTemplates.get(i));
+
+			if (characterPyramids.get(i).getLevelCount() != inputPyramid.getLevelCount())
+				return false;
+
+			for (int l = 0; l < levelSizes.length; l++)
+				if (characterPyramids.get(i).getLevel(l).getWidth() != levelSizes[l]
+						|| characterPyramids.get(i).percentageMatch(inputPyramid, l) != 100)
+
+					return false;
+
+		}
+
+		return true;
+
+	}
+
+	// method that prints the result of a check and counts it if it failed
+	private static void report(boolean passed, String description) {
+
+		System.out.println((passed ? "ok      " : "FAILED  ") + description);
+
+		if (!passed)
+			failedCount++;
+
+	}
+
+}
@@ -1,6 +1,10 @@
 package launcher;
 
-import display.IntroScreen;
+import display.ApplicationFrame;
+import recognition.WarmUpService;
+import utils.AudioPlayer;
+import utils.CustomizationTool;
+import utils.IconCache;
 
 /*
  * Author: Alan Sun
@@ -24,7 +28,17 @@ public class ZyronTester {
 	// main method executes when program runs, starts program by opening a new intro screen
 	public static void main(String[] args) {
 		
-		new IntroScreen();
+		// decode the button effect on the audio thread while the first screen opens
+		AudioPlayer.preload("utility/button.wav");
+
+		// decode the pictures of every screen on background threads, the intro screen waits only for the ones it shows
+		IconCache.preload();
+
+		// load the patterns and the dictionary and warm up the recognition while the user is on the intro screen
+		if (CustomizationTool.backgroundWarmUp)
+			WarmUpService.start();
+
+		ApplicationFrame.showIntroScreen();
 
 	}
 
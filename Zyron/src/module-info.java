@@ -7,4 +7,6 @@
  */
 module zyron {
 	requires java.desktop;
+	requires jdk.management;
+	requires jdk.jfr;
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package recognition;
+
+import java.awt.image.BufferedImage;
+
+/*
+ * Character Span class stores where a character is inside a word image as a column offset and a width
+ * No pixels are copied, the character image is a sub image that shares the raster of the word image
+ */
+public class CharacterSpan {
+
+	// first column of the character and number of columns it covers
+	private final int start;
+	private final int width;
+
+	// constructor taking in the first column and the width
+	public CharacterSpan(int start, int width) {
+
+		this.start = start;
+		this.width = width;
+
+	}
+
+	// method that returns the character as a view of the word image
+	public BufferedImage getImage(BufferedImage wordImage) {
+
+		return wordImage.getSubimage(start, 0, width, wordImage.getHeight());
+
+	}
+
+	// getters
+	public int getStart() {
+		return start;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getEnd() {
+		return start + width;
+	}
+
+}
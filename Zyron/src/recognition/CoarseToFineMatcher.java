@@ -0,0 +1,83 @@
+package recognition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import utils.CustomizationTool;
+
+/*
+ * Coarse To Fine Matcher class compares a character with the templates from the coarsest pyramid level to the full glyph
+ * At each level a template is rejected if it is further than the tolerance below the best template of its letter
+ * Only the templates left after every coarse level are compared at full resolution
+ * Every letter keeps at least its best template, so the dictionary still gets a full resolution percentage for all 26 letters
+ */
+public class CoarseToFineMatcher {
+
+	// method that fills a hash map with keys from 'a' to 'z' and values with the max percentage pixel matched
+	public static HashMap<Character, Double> fillMap(HashMap<Character, Double> characterHierarchy, GlyphBitmap inputPixels) {
+
+		GlyphPyramid inputPyramid = GlyphPyramid.build(inputPixels);
+		int fullLevel = inputPyramid.getLevelCount() - 1;
+		double tolerance = CustomizationTool.coarseToFineTolerance;
+
+		// templates that are still contenders for each letter
+		ArrayList<ArrayList<GlyphPyramid>> contenders = new ArrayList<ArrayList<GlyphPyramid>>();
+
+		for (int i = 0; i < 26; i++)
+			contenders.add(new ArrayList<GlyphPyramid>(TemplateCache.getPyramids((char) (97 + i))));
+
+		double[] letterPercentages = new double[26];
+
+		for (int level = 0; level <= fullLevel; level++) {
+
+			double[][] templatePercentages = new double[26][];
+
+			// compare every contender at this level and find the best template of each letter
+			for (int i = 0; i < 26; i++) {
+
+				templatePercentages[i] = new double[contenders.get(i).size()];
+				letterPercentages[i] = 0;
+
+				for (int j = 0; j < contenders.get(i).size(); j++) {
+
+					templatePercentages[i][j] = inputPyramid.percentageMatch(contenders.get(i).get(j), level);
+					letterPercentages[i] = Math.max(letterPercentages[i], templatePercentages[i][j]);
+
+				}
+
+			}
+
+			if (level == fullLevel)
+				break;
+
+			// reject the templates that clearly cannot be the best of their letter
+			for (int i = 0; i < 26; i++) {
+
+				ArrayList<GlyphPyramid> remainingContenders = new ArrayList<GlyphPyramid>();
+
+				for (int j = 0; j < contenders.get(i).size(); j++)
+					if (templatePercentages[i][j] >= letterPercentages[i] - tolerance)
+
+						remainingContenders.add(contenders.get(i).get(j));
+
+				contenders.set(i, remainingContenders);
+
+			}
+
+		}
+
+		// if the new match percentage is higher, replace the old one
+		for (int i = 0; i < 26; i++) {
+
+			char currentCharacter = (char) (97 + i);
+
+			if (characterHierarchy.get(currentCharacter) < letterPercentages[i])
+				characterHierarchy.put(currentCharacter, letterPercentages[i]);
+
+		}
+
+		return Recognizer.sortByValue(characterHierarchy);
+
+	}
+
+}
@@ -0,0 +1,260 @@
+package recognition;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import utils.CustomizationTool;
+
+/*
+ * Dictionary class loads the dictionary file once and keeps every word in arrays bucketed by word length
+ * Words are scored with a direct lookup of the percentage matched of each letter at each position
+ * Only the requested number of best words are kept in a bounded heap, so no full sort is ever done
+ * Each length bucket is also stored in a word trie, so the best words can be found without scoring the whole bucket
+ * Words are kept exactly as they are written in the file so the scores are the same as scanning the file
+ */
+public class Dictionary {
+
+	// location of the dictionary file
+	public static final String dictionaryLocation = "utility/dictionary.txt";
+
+	// words of each length in the order of the file, the index of the outer array is the word length
+	private static volatile String[][] buckets;
+
+	// word trie of each length, the index of the array is the word length
+	private static volatile WordTrie[] tries;
+
+	// every word of the dictionary, used to test if a word exist
+	private static final HashSet<String> words = new HashSet<String>();
+
+	// method that reads the dictionary file into the length buckets, only done once for the whole program
+	public static synchronized void load() {
+
+		if (buckets != null)
+			return;
+
+		List<String> fileWords = new ArrayList<String>();
+
+		try {
+
+			fileWords = Files.readAllLines(new File(dictionaryLocation).toPath(), Charset.defaultCharset());
+
+		} catch (IOException error) {
+
+			System.out.println("File not found");
+
+		}
+
+		loadWords(fileWords);
+
+	}
+
+	// method that replaces the words in memory with the given list, used for larger lexicons and benchmarks
+	public static synchronized void loadWords(List<String> dictionaryWords) {
+
+		words.clear();
+
+		ArrayList<ArrayList<String>> wordsByLength = new ArrayList<ArrayList<String>>();
+
+		for (String word : dictionaryWords) {
+
+			// repeated words only count once, just like in the top choices hash map
+			if (!words.add(word))
+				continue;
+
+			while (wordsByLength.size() <= word.length())
+				wordsByLength.add(new ArrayList<String>());
+
+			wordsByLength.get(word.length()).add(word);
+
+		}
+
+		String[][] loadedBuckets = new String[wordsByLength.size()][];
+
+		for (int i = 0; i < loadedBuckets.length; i++)
+			loadedBuckets[i] = wordsByLength.get(i).toArray(new String[0]);
+
+		WordTrie[] loadedTries = new WordTrie[loadedBuckets.length];
+
+		for (int i = 0; i < loadedBuckets.length; i++) {
+
+			loadedTries[i] = new WordTrie(i);
+
+			for (int j = 0; j < loadedBuckets[i].length; j++)
+				loadedTries[i].insert(loadedBuckets[i][j], j);
+
+		}
+
+		buckets = loadedBuckets;
+		tries = loadedTries;
+
+	}
+
+	// method that returns true if the word is in the dictionary
+	public static synchronized boolean contains(String word) {
+
+		load();
+
+		return words.contains(word);
+
+	}
+
+	// method that returns the number of words with the given length
+	public static int countWords(int length) {
+
+		load();
+
+		String[][] currentBuckets = buckets;
+
+		return length < currentBuckets.length ? currentBuckets[length].length : 0;
+
+	}
+
+	// method that adds a word to the dictionary file and to its bucket, if the word is not already in the dictionary
+	public static synchronized void addWord(String word) throws IOException {
+
+		if (contains(word))
+			return;
+
+		PrintWriter printWriter = new PrintWriter(new BufferedWriter(new FileWriter(dictionaryLocation, true)));
+		printWriter.println(word);
+		printWriter.close();
+
+		words.add(word);
+
+		// buckets are replaced instead of changed so that words being scored on other threads are never affected
+		String[][] updatedBuckets = Arrays.copyOf(buckets, Math.max(buckets.length, word.length() + 1));
+
+		for (int i = buckets.length; i < updatedBuckets.length; i++)
+			updatedBuckets[i] = new String[0];
+
+		String[] bucket = Arrays.copyOf(updatedBuckets[word.length()], updatedBuckets[word.length()].length + 1);
+		bucket[bucket.length - 1] = word;
+		updatedBuckets[word.length()] = bucket;
+
+		// the new word is the last one of its bucket, so it is inserted into the trie with that position
+		WordTrie[] updatedTries = Arrays.copyOf(tries, updatedBuckets.length);
+
+		for (int i = tries.length; i < updatedTries.length; i++)
+			updatedTries[i] = new WordTrie(i);
+
+		updatedTries[word.length()].insert(word, bucket.length - 1);
+
+		buckets = updatedBuckets;
+		tries = updatedTries;
+
+	}
+
+	// method that returns the best words with the same length as the input, sorted in descending order of points
+	public static LinkedHashMap<String, Double> getTopChoices(ArrayList<HashMap<Character, Double>> characterHierarchy,
+			int topChoiceCount) {
+
+		load();
+
+		String[][] currentBuckets = buckets;
+		int wordLength = characterHierarchy.size();
+
+		LinkedHashMap<String, Double> topChoices = new LinkedHashMap<String, Double>();
+
+		if (wordLength >= currentBuckets.length || topChoiceCount <= 0)
+			return topChoices;
+
+		// letter points of every position, letters that are not from 'a' to 'z' are worth no points
+		double[][] letterPoints = new double[wordLength][26];
+
+		for (int i = 0; i < wordLength; i++)
+			for (Map.Entry<Character, Double> hierarchyEntry : characterHierarchy.get(i).entrySet())
+				if (hierarchyEntry.getKey() >= 'a' && hierarchyEntry.getKey() <= 'z')
+
+					letterPoints[i][hierarchyEntry.getKey() - 'a'] = hierarchyEntry.getValue();
+
+		// the trie finds the same words as scoring the whole bucket
+		if (CustomizationTool.trieWordSearch)
+			return tries[wordLength].search(letterPoints, topChoiceCount);
+
+		String[] bucket = currentBuckets[wordLength];
+
+		// min heap of the best words found so far, the worst of them is always at the top
+		PriorityQueue<ScoredWord> bestWords = new PriorityQueue<ScoredWord>(topChoiceCount + 1);
+
+		for (int j = 0; j < bucket.length; j++) {
+
+			String word = bucket[j];
+			double characterPoints = 0;
+
+			for (int i = 0; i < wordLength; i++) {
+
+				int letterIndex = word.charAt(i) - 'a';
+
+				if (letterIndex >= 0 && letterIndex < 26)
+					characterPoints += letterPoints[i][letterIndex];
+
+			}
+
+			if (bestWords.size() < topChoiceCount) {
+
+				bestWords.add(new ScoredWord(word, characterPoints, j));
+
+			} else if (characterPoints > bestWords.peek().points) {
+
+				bestWords.poll();
+				bestWords.add(new ScoredWord(word, characterPoints, j));
+
+			}
+
+		}
+
+		// empty the heap from the worst word to the best one and reverse it
+		ScoredWord[] sortedWords = new ScoredWord[bestWords.size()];
+
+		for (int i = sortedWords.length - 1; i >= 0; i--)
+			sortedWords[i] = bestWords.poll();
+
+		for (ScoredWord scoredWord : sortedWords)
+			topChoices.put(scoredWord.word, scoredWord.points);
+
+		return topChoices;
+
+	}
+
+	// word with its points and its position in the bucket, words with the same points are ranked in dictionary order
+	static class ScoredWord implements Comparable<ScoredWord> {
+
+		final String word;
+		final double points;
+		final int position;
+
+		ScoredWord(String word, double points, int position) {
+
+			this.word = word;
+			this.points = points;
+			this.position = position;
+
+		}
+
+		// the worse word is the smaller one so that it sits at the top of the min heap
+		@Override
+		public int compareTo(ScoredWord other) {
+
+			if (points != other.points)
+				return Double.compare(points, other.points);
+
+			return Integer.compare(other.position, position);
+
+		}
+
+	}
+
+}
@@ -0,0 +1,164 @@
+package recognition;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import utils.CustomizationTool;
+
+/*
+ * Document Recognizer class recognizes every word of a page with several lines and words
+ * The page is broken into lines, and the words of each line are handed to the word workers as soon as the line is split,
+ * so the first words are being matched while the rest of the page is still being split
+ * Every word goes through the same segmentation, matching and dictionary ranking as a single word image
+ * Results are reported in reading order, each one as soon as it and every word before it are done,
+ * and only a bounded number of words are waiting at any time, so the memory used does not grow with the page
+ */
+public class DocumentRecognizer {
+
+	// number of words each worker may have waiting before the page stops being split until the next word is reported
+	private static final int wordsPerWorker = 4;
+
+	// workers shared by all documents, one pool per parallelism asked for, never shut down so a page being read
+	// never has its words rejected because another thread changed the parallelism, idle workers stop after a minute
+	private static final HashMap<Integer, ThreadPoolExecutor> executors = new HashMap<Integer, ThreadPoolExecutor>();
+
+	// method that recognizes every word of a page and reports each one to the listener in reading order, returns the number of words
+	public static int recognize(String source, BufferedImage pageImage, int topChoiceCount, WordListener listener)
+			throws InterruptedException {
+
+		ExecutorService wordExecutor = getExecutor(CustomizationTool.recognitionParallelism);
+		int maxWaitingWords = wordsPerWorker * Math.max(1, CustomizationTool.recognitionParallelism);
+
+		// words handed to the workers that have not been reported yet, in reading order
+		ArrayDeque<WordRegion> waitingRegions = new ArrayDeque<WordRegion>();
+		ArrayDeque<Future<RecognitionResult>> waitingResults = new ArrayDeque<Future<RecognitionResult>>();
+
+		int wordCount = 0;
+
+		try {
+
+			int lineIndex = 0;
+
+			for (Rectangle line : DocumentSegmenter.findLines(pageImage)) {
+
+				for (final WordRegion wordRegion : DocumentSegmenter.findWords(pageImage, line, lineIndex)) {
+
+					final BufferedImage wordImage = wordRegion.getImage(pageImage);
+					final String wordSource = source + "#" + wordRegion.getLineIndex() + "." + wordRegion.getWordIndex();
+
+					waitingRegions.add(wordRegion);
+					waitingResults.add(wordExecutor.submit(new Callable<RecognitionResult>() {
+						@Override
+						public RecognitionResult call() {
+
+							return Recognizer.recognize(wordSource, wordImage, topChoiceCount);
+
+						}
+					}));
+
+					// report every word at the front that is already done, and wait for the first one if too many are waiting
+					while (!waitingResults.isEmpty() && (waitingResults.peek().isDone() || waitingResults.size() > maxWaitingWords)) {
+
+						report(waitingRegions.poll(), waitingResults.poll(), listener);
+						wordCount++;
+
+					}
+
+				}
+
+				lineIndex++;
+
+			}
+
+			while (!waitingResults.isEmpty()) {
+
+				report(waitingRegions.poll(), waitingResults.poll(), listener);
+				wordCount++;
+
+			}
+
+		} finally {
+
+			// words that will never be reported are not matched, for example when the thread was interrupted
+			for (Future<RecognitionResult> waitingResult : waitingResults)
+				waitingResult.cancel(true);
+
+		}
+
+		return wordCount;
+
+	}
+
+	// method that waits for the result of a word and reports it to the listener
+	private static void report(WordRegion wordRegion, Future<RecognitionResult> wordResult, WordListener listener)
+			throws InterruptedException {
+
+		try {
+
+			listener.wordRecognized(wordRegion, wordResult.get());
+
+		} catch (ExecutionException error) {
+
+			// an error of a word is thrown again on the thread that reads the page
+			if (error.getCause() instanceof RuntimeException)
+				throw (RuntimeException) error.getCause();
+
+			throw new IllegalStateException(error.getCause());
+
+		}
+
+	}
+
+	// method that returns the shared workers with the requested parallelism
+	private static synchronized ExecutorService getExecutor(int parallelism) {
+
+		parallelism = Math.max(1, parallelism);
+
+		ThreadPoolExecutor executor = executors.get(parallelism);
+
+		if (executor == null) {
+
+			// the threads are daemons so they never keep the program open
+			executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+
+						Thread thread = new Thread(runnable, "document-worker");
+						thread.setDaemon(true);
+
+						return thread;
+
+					}
+				});
+
+			executor.allowCoreThreadTimeOut(true);
+			executors.put(parallelism, executor);
+
+		}
+
+		return executor;
+
+	}
+
+	/*
+	 * Word Listener interface is told about every word of a page in reading order, on the thread that reads the page
+	 */
+	public interface WordListener {
+
+		// method called with the region of a word and what was recognized in it
+		void wordRecognized(WordRegion wordRegion, RecognitionResult result);
+
+	}
+
+}
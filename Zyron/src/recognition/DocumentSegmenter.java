@@ -0,0 +1,118 @@
+package recognition;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+import utils.CustomizationTool;
+
+/*
+ * Document Segmenter class breaks a page image into lines and words with projections of its ink
+ * Lines are the runs of rows that hold ink, found in a single pass over the page, and a run much shorter than the line
+ * right below it and close to it (the dots of 'i' and 'j' above a line without tall letters) is joined to that line
+ * Words are the runs of columns of a line that hold ink, split wherever the white gap is wider than the word gap ratio
+ * of the line height, the white columns between the characters of a word are always narrower than that
+ */
+public class DocumentSegmenter {
+
+	// method that returns the bounds of every line of the page, from top to bottom
+	public static ArrayList<Rectangle> findLines(BufferedImage pageImage) {
+
+		int[] rowPixels = new int[pageImage.getWidth()];
+		boolean[] inkRows = new boolean[pageImage.getHeight()];
+
+		// a row has ink if any of its pixels is not white, the same pixels the segmenter counts as ink
+		for (int y = 0; y < pageImage.getHeight(); y++) {
+
+			CustomizationTool.getRowRGB(pageImage, y, rowPixels);
+
+			for (int x = 0; x < rowPixels.length && !inkRows[y]; x++)
+				inkRows[y] = !CustomizationTool.isWhite(rowPixels[x]);
+
+		}
+
+		ArrayList<Rectangle> lines = new ArrayList<Rectangle>();
+
+		int lineStart = -1;
+
+		for (int y = 0; y <= inkRows.length; y++) {
+
+			if (y < inkRows.length && inkRows[y]) {
+
+				if (lineStart < 0)
+					lineStart = y;
+
+			} else if (lineStart >= 0) {
+
+				addLine(lines, new Rectangle(0, lineStart, pageImage.getWidth(), y - lineStart));
+				lineStart = -1;
+
+			}
+
+		}
+
+		return lines;
+
+	}
+
+	// method that adds a line after the lines already found, joining the last one to it if it only holds marks above it
+	private static void addLine(ArrayList<Rectangle> lines, Rectangle line) {
+
+		if (!lines.isEmpty()) {
+
+			Rectangle previousLine = lines.get(lines.size() - 1);
+			int gap = line.y - (previousLine.y + previousLine.height);
+
+			if (previousLine.height * 2 < line.height && gap < line.height) {
+
+				lines.set(lines.size() - 1, previousLine.union(line));
+				return;
+
+			}
+
+		}
+
+		lines.add(line);
+
+	}
+
+	// method that returns the region of every word of a line, from left to right
+	public static ArrayList<WordRegion> findWords(BufferedImage pageImage, Rectangle line, int lineIndex) {
+
+		int[] inkProfile = Segmenter.getInkProfile(pageImage.getSubimage(line.x, line.y, line.width, line.height));
+		int minimumGap = Math.max(1, (int) Math.ceil(line.height * CustomizationTool.wordGapRatio));
+
+		ArrayList<WordRegion> words = new ArrayList<WordRegion>();
+
+		// first column with ink of the current word and the column right after its last ink, -1 before the first word
+		int wordStart = -1;
+		int wordEnd = -1;
+
+		for (int x = 0; x < inkProfile.length; x++) {
+
+			if (inkProfile[x] == 0)
+				continue;
+
+			// a wide enough gap ends the word before this column
+			if (wordStart >= 0 && x - wordEnd > minimumGap) {
+
+				words.add(new WordRegion(lineIndex, words.size(), line.x + wordStart, line.y, wordEnd - wordStart, line.height));
+				wordStart = -1;
+
+			}
+
+			if (wordStart < 0)
+				wordStart = x;
+
+			wordEnd = x + 1;
+
+		}
+
+		if (wordStart >= 0)
+			words.add(new WordRegion(lineIndex, words.size(), line.x + wordStart, line.y, wordEnd - wordStart, line.height));
+
+		return words;
+
+	}
+
+}
@@ -0,0 +1,146 @@
+package recognition;
+
+import java.awt.image.BufferedImage;
+import java.nio.LongBuffer;
+
+import utils.CustomizationTool;
+
+/*
+ * Glyph Bitmap class stores a normalized character image with one bit per pixel packed into long words
+ * Pixels are stored column by column in the same order as the 2D boolean arrays from the CustomizationTool class
+ * A dark pixel is stored as a 1 bit and a white pixel as a 0 bit, unused bits in the last word are always 0
+ * The words are read through a LongBuffer so a glyph can live on the heap or inside a memory mapped template index
+ */
+public class GlyphBitmap {
+
+	// size variables of the glyph
+	private final int width;
+	private final int height;
+
+	// packed pixels, 64 pixels per word
+	private final LongBuffer words;
+
+	// constructor creates an empty glyph where every pixel is white
+	public GlyphBitmap(int width, int height) {
+
+		this(width, height, LongBuffer.allocate(getWordCount(width, height)));
+
+	}
+
+	// constructor that wraps words that are already packed, the words are not copied
+	public GlyphBitmap(int width, int height, LongBuffer words) {
+
+		this.width = width;
+		this.height = height;
+		this.words = words;
+
+	}
+
+	// method that returns how many long words are needed to store a glyph of the given size
+	public static int getWordCount(int width, int height) {
+
+		return (width * height + 63) >>> 6;
+
+	}
+
+	// method that packs a 2D boolean array indexed by [x][y] into a glyph
+	public static GlyphBitmap fromBooleanArray(boolean[][] pixels) {
+
+		GlyphBitmap glyph = new GlyphBitmap(pixels.length, pixels[0].length);
+
+		for (int x = 0; x < glyph.width; x++)
+			for (int y = 0; y < glyph.height; y++)
+				if (pixels[x][y])
+
+					glyph.set(x, y);
+
+		return glyph;
+
+	}
+
+	// method that converts a normalized character image into a glyph, reading the image a row at a time
+	public static GlyphBitmap fromImage(BufferedImage characterImage) {
+
+		GlyphBitmap glyph = new GlyphBitmap(characterImage.getWidth(), characterImage.getHeight());
+		int[] rowPixels = new int[glyph.width];
+
+		for (int y = 0; y < glyph.height; y++) {
+
+			CustomizationTool.getRowRGB(characterImage, y, rowPixels);
+
+			for (int x = 0; x < glyph.width; x++)
+				if (CustomizationTool.isDark(rowPixels[x]))
+
+					glyph.set(x, y);
+
+		}
+
+		return glyph;
+
+	}
+
+	// method that draws the glyph as a black and white image, the image is read back into the same glyph
+	public BufferedImage toImage() {
+
+		BufferedImage characterImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		int[] rowPixels = new int[width];
+
+		for (int y = 0; y < height; y++) {
+
+			for (int x = 0; x < width; x++)
+				rowPixels[x] = get(x, y) ? 0x000000 : 0xFFFFFF;
+
+			characterImage.setRGB(0, y, width, 1, rowPixels, 0, width);
+
+		}
+
+		return characterImage;
+
+	}
+
+	// method that returns true if the pixel at the given position is dark
+	public boolean get(int x, int y) {
+
+		int index = x * height + y;
+
+		return (words.get(index >>> 6) & (1L << index)) != 0;
+
+	}
+
+	// method that marks the pixel at the given position as dark
+	public void set(int x, int y) {
+
+		int index = x * height + y;
+
+		words.put(index >>> 6, words.get(index >>> 6) | (1L << index));
+
+	}
+
+	// method that returns the number of pixels stored in this glyph
+	public int getPixelCount() {
+
+		return width * height;
+
+	}
+
+	// method that returns the number of long words used by this glyph
+	public int getWordCount() {
+
+		return words.limit();
+
+	}
+
+	// getters
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public LongBuffer getWords() {
+		return words;
+	}
+
+}
@@ -0,0 +1,85 @@
+package recognition;
+
+import java.nio.LongBuffer;
+
+import utils.CustomizationTool;
+
+/*
+ * Glyph Matcher class compares two packed glyphs 64 pixels at a time
+ * Pixels that agree are found with ~(a ^ b) and counted with Long.bitCount
+ */
+public class GlyphMatcher {
+
+	// method that counts how many pixels have the same color in both glyphs
+	public static int countMatches(GlyphBitmap inputGlyph, GlyphBitmap templateGlyph) {
+
+		LongBuffer inputWords = inputGlyph.getWords();
+		LongBuffer templateWords = templateGlyph.getWords();
+		int wordCount = inputGlyph.getWordCount();
+
+		int numPixelMatchCount = 0;
+
+		// the words are read in place, templates inside a memory mapped index are never copied to the heap
+		for (int i = 0; i < wordCount; i++)
+
+			numPixelMatchCount += Long.bitCount(~(inputWords.get(i) ^ templateWords.get(i)));
+
+		// unused bits at the end of the last word are 0 in both glyphs and must not be counted as matches
+		return numPixelMatchCount - (wordCount * 64 - inputGlyph.getPixelCount());
+
+	}
+
+	// method that counts how many pixels have a different color in the two glyphs, the hamming distance between them
+	public static int countDifferences(GlyphBitmap firstGlyph, GlyphBitmap secondGlyph) {
+
+		LongBuffer firstWords = firstGlyph.getWords();
+		LongBuffer secondWords = secondGlyph.getWords();
+		int wordCount = firstGlyph.getWordCount();
+
+		int numPixelDifferenceCount = 0;
+
+		for (int i = 0; i < wordCount; i++)
+			numPixelDifferenceCount += Long.bitCount(firstWords.get(i) ^ secondWords.get(i));
+
+		return numPixelDifferenceCount;
+
+	}
+
+	// method that counts the differing pixels like countDifferences, but stops as soon as the count reaches the limit
+	public static int countDifferences(GlyphBitmap firstGlyph, GlyphBitmap secondGlyph, int limit) {
+
+		LongBuffer firstWords = firstGlyph.getWords();
+		LongBuffer secondWords = secondGlyph.getWords();
+		int wordCount = firstGlyph.getWordCount();
+
+		int numPixelDifferenceCount = 0;
+
+		// the count is checked once per block of words so the loop stays as tight as the full count
+		for (int i = 0; i < wordCount && numPixelDifferenceCount < limit; i += 64) {
+
+			int blockEnd = Math.min(wordCount, i + 64);
+
+			for (int j = i; j < blockEnd; j++)
+				numPixelDifferenceCount += Long.bitCount(firstWords.get(j) ^ secondWords.get(j));
+
+		}
+
+		return numPixelDifferenceCount;
+
+	}
+
+	// method that returns the percentage of pixels matched, the same way the input screen has always calculated it
+	public static double percentageMatch(GlyphBitmap inputGlyph, GlyphBitmap templateGlyph) {
+
+		return (double) countMatches(inputGlyph, templateGlyph) / CustomizationTool.totalPixels * 100;
+
+	}
+
+	// method that returns the percentage of pixels matched with a template that differs from the input by the given pixels
+	public static double percentageMatch(GlyphBitmap inputGlyph, int pixelDifferenceCount) {
+
+		return (double) (inputGlyph.getPixelCount() - pixelDifferenceCount) / CustomizationTool.totalPixels * 100;
+
+	}
+
+}
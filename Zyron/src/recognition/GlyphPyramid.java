@@ -0,0 +1,103 @@
+package recognition;
+
+import utils.CustomizationTool;
+
+/*
+ * Glyph Pyramid class stores a glyph at several resolutions, from the coarsest level to the full glyph
+ * A pixel of a coarse level is dark if at least half of the full resolution pixels it covers are dark
+ * The full resolution level is the original glyph itself, so a template inside the mapped index is never copied
+ */
+public class GlyphPyramid {
+
+	// levels of the pyramid, the last one is the full resolution glyph
+	private final GlyphBitmap[] levels;
+
+	// constructor taking in every level from the coarsest to the full resolution
+	private GlyphPyramid(GlyphBitmap[] levels) {
+
+		this.levels = levels;
+
+	}
+
+	// method that builds the coarse levels of a glyph with the sizes set in the CustomizationTool class
+	public static GlyphPyramid build(GlyphBitmap glyph) {
+
+		int[] levelSizes = CustomizationTool.pyramidLevelSizes;
+		int width = glyph.getWidth();
+		int height = glyph.getHeight();
+
+		// number of dark pixels and total pixels covered by every coarse pixel of every level
+		int[][][] darkCounts = new int[levelSizes.length][][];
+		int[][] columnAreas = new int[levelSizes.length][];
+		int[][] rowAreas = new int[levelSizes.length][];
+
+		for (int l = 0; l < levelSizes.length; l++) {
+
+			darkCounts[l] = new int[levelSizes[l]][levelSizes[l]];
+			columnAreas[l] = new int[levelSizes[l]];
+			rowAreas[l] = new int[levelSizes[l]];
+
+			for (int x = 0; x < width; x++)
+				columnAreas[l][x * levelSizes[l] / width]++;
+
+			for (int y = 0; y < height; y++)
+				rowAreas[l][y * levelSizes[l] / height]++;
+
+		}
+
+		// a single pass over the full glyph counts the dark pixels of every level at once
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				if (glyph.get(x, y))
+					for (int l = 0; l < levelSizes.length; l++)
+
+						darkCounts[l][x * levelSizes[l] / width][y * levelSizes[l] / height]++;
+
+		GlyphBitmap[] levels = new GlyphBitmap[levelSizes.length + 1];
+
+		for (int l = 0; l < levelSizes.length; l++) {
+
+			levels[l] = new GlyphBitmap(levelSizes[l], levelSizes[l]);
+
+			for (int x = 0; x < levelSizes[l]; x++)
+				for (int y = 0; y < levelSizes[l]; y++)
+					if (darkCounts[l][x][y] * 2 >= columnAreas[l][x] * rowAreas[l][y])
+
+						levels[l].set(x, y);
+
+		}
+
+		levels[levelSizes.length] = glyph;
+
+		return new GlyphPyramid(levels);
+
+	}
+
+	// method that returns the percentage of pixels matched with another pyramid at one level
+	public double percentageMatch(GlyphPyramid other, int level) {
+
+		// the full resolution keeps the same percentage the input screen has always calculated
+		if (level == levels.length - 1)
+			return GlyphMatcher.percentageMatch(levels[level], other.levels[level]);
+
+		return (double) GlyphMatcher.countMatches(levels[level], other.levels[level]) / levels[level].getPixelCount() * 100;
+
+	}
+
+	// method that returns the number of levels, including the full resolution
+	public int getLevelCount() {
+
+		return levels.length;
+
+	}
+
+	// getters
+	public GlyphBitmap getLevel(int level) {
+		return levels[level];
+	}
+
+	public GlyphBitmap getGlyph() {
+		return levels[levels.length - 1];
+	}
+
+}
@@ -0,0 +1,240 @@
+package recognition;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Glyph Tree class is a BK-tree over packed glyphs, where the distance is the number of pixels that differ
+ * Every child of a node is stored under the ring its distance to the node falls in, so by the triangle inequality a whole
+ * branch can be skipped when its ring is not closer than the best distance found so far to the distance from the node
+ * Rings group close distances together, so the tree grows in depth instead of giving almost every glyph its own child
+ * Branches are searched from the most promising one first, so the best distance is found early and most branches are skipped
+ * Every node also keeps the number of dark pixels in each block of its glyph, the differences of these counts are a lower bound
+ * of the distance, so many nodes are skipped without counting their differing pixels at all
+ * Glyphs can be inserted at any time, searches and insertions may run on different threads
+ */
+public class GlyphTree {
+
+	// number of long words in each block of dark pixel counts
+	private static final int blockSize = 64;
+
+	// number of rings the distances from a node are divided into
+	private static final int ringCount = 64;
+
+	// root of the tree, null while the tree is empty
+	private Node root;
+
+	// range of distances covered by each ring, set by the size of the first glyph
+	private int ringWidth;
+
+	// number of glyphs inserted, copies of a glyph already in the tree are counted but not stored
+	private int size;
+
+	// searches share the read lock and insertions take the write lock
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// constructor builds a tree holding the given glyphs
+	public GlyphTree(ArrayList<GlyphBitmap> glyphs) {
+
+		for (GlyphBitmap glyph : glyphs)
+			insert(glyph);
+
+	}
+
+	// method that inserts a glyph under the child of each node whose ring holds its distance, down to a free place
+	public void insert(GlyphBitmap glyph) {
+
+		lock.writeLock().lock();
+
+		try {
+
+			size++;
+
+			if (root == null) {
+
+				ringWidth = Math.max(1, glyph.getPixelCount() / ringCount);
+				root = new Node(glyph, countBlocks(glyph));
+				return;
+
+			}
+
+			Node node = root;
+
+			while (true) {
+
+				int distance = GlyphMatcher.countDifferences(glyph, node.glyph);
+
+				// a copy of a glyph never changes the best distance, so it is not stored again
+				if (distance == 0)
+					return;
+
+				Node child = node.children.get(distance / ringWidth);
+
+				if (child == null) {
+
+					node.children.put(distance / ringWidth, new Node(glyph, countBlocks(glyph)));
+					return;
+
+				}
+
+				node = child;
+
+			}
+
+		} finally {
+
+			lock.writeLock().unlock();
+
+		}
+
+	}
+
+	// method that returns the smallest number of differing pixels between the glyph and any glyph of the tree, -1 if empty
+	public int findNearestDistance(GlyphBitmap glyph) {
+
+		lock.readLock().lock();
+
+		try {
+
+			if (root == null)
+				return -1;
+
+			int bestDistance = Integer.MAX_VALUE;
+			int[] blockCounts = countBlocks(glyph);
+
+			// branches waiting to be searched, ordered by the smallest distance a glyph inside them could have
+			PriorityQueue<Branch> branches = new PriorityQueue<Branch>();
+			branches.add(new Branch(root, 0));
+
+			while (!branches.isEmpty() && branches.peek().lowerBound < bestDistance) {
+
+				Branch branch = branches.poll();
+				Node node = branch.node;
+
+				// a glyph below this node is at most the outer edge of its last ring away from it, so once the distance reaches
+				// the best distance plus that edge, neither the node nor any glyph below it can be better and the count stops
+				long furthestDescendant = node.children.isEmpty() ? 0 : (node.children.lastKey() + 1L) * ringWidth - 1;
+				int distanceLimit = (int) Math.min(Integer.MAX_VALUE, bestDistance + furthestDescendant);
+
+				if (getLowerBound(blockCounts, node.blockCounts) >= distanceLimit)
+					continue;
+
+				int distance = GlyphMatcher.countDifferences(glyph, node.glyph, distanceLimit);
+
+				if (distance >= distanceLimit)
+					continue;
+
+				bestDistance = Math.min(bestDistance, distance);
+
+				// only the rings that come closer than the best distance to the distance from this node can hold a better glyph
+				int lowestRing = Math.max(0, distance - bestDistance + 1) / ringWidth;
+				int highestRing = (int) Math.min(Integer.MAX_VALUE, (long) distance + bestDistance - 1) / ringWidth;
+
+				for (Map.Entry<Integer, Node> child : node.children.subMap(lowestRing, true, highestRing, true).entrySet()) {
+
+					int ringStart = child.getKey() * ringWidth;
+					int ringEnd = ringStart + ringWidth - 1;
+					int childLowerBound = Math.max(branch.lowerBound, Math.max(ringStart - distance, distance - ringEnd));
+
+					if (childLowerBound < bestDistance)
+						branches.add(new Branch(child.getValue(), childLowerBound));
+
+				}
+
+			}
+
+			return bestDistance;
+
+		} finally {
+
+			lock.readLock().unlock();
+
+		}
+
+	}
+
+	// method that counts the dark pixels in each block of words of a glyph
+	private static int[] countBlocks(GlyphBitmap glyph) {
+
+		int wordCount = glyph.getWordCount();
+		int[] blockCounts = new int[(wordCount + blockSize - 1) / blockSize];
+
+		for (int i = 0; i < wordCount; i++)
+			blockCounts[i / blockSize] += Long.bitCount(glyph.getWords().get(i));
+
+		return blockCounts;
+
+	}
+
+	// method that returns a lower bound of the distance between two glyphs, every pixel counted in the difference
+	// of a block count is a pixel that is dark in one glyph and white in the other
+	private static int getLowerBound(int[] firstBlockCounts, int[] secondBlockCounts) {
+
+		int lowerBound = 0;
+
+		for (int i = 0; i < firstBlockCounts.length; i++)
+			lowerBound += Math.abs(firstBlockCounts[i] - secondBlockCounts[i]);
+
+		return lowerBound;
+
+	}
+
+	// method that returns the number of glyphs inserted in the tree
+	public int size() {
+
+		lock.readLock().lock();
+
+		try {
+
+			return size;
+
+		} finally {
+
+			lock.readLock().unlock();
+
+		}
+
+	}
+
+	// node of the tree with its glyph, the dark pixel count of each block and its children stored by ring
+	private static class Node {
+
+		private final GlyphBitmap glyph;
+		private final int[] blockCounts;
+		private final TreeMap<Integer, Node> children = new TreeMap<Integer, Node>();
+
+		private Node(GlyphBitmap glyph, int[] blockCounts) {
+
+			this.glyph = glyph;
+			this.blockCounts = blockCounts;
+
+		}
+
+	}
+
+	// branch of the tree waiting to be searched with the smallest distance a glyph inside it could have
+	private static class Branch implements Comparable<Branch> {
+
+		private final Node node;
+		private final int lowerBound;
+
+		private Branch(Node node, int lowerBound) {
+
+			this.node = node;
+			this.lowerBound = lowerBound;
+
+		}
+
+		@Override
+		public int compareTo(Branch otherBranch) {
+
+			return Integer.compare(lowerBound, otherBranch.lowerBound);
+
+		}
+
+	}
+
+}
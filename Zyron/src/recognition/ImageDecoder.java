@@ -0,0 +1,196 @@
+package recognition;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import utils.CustomizationTool;
+
+/*
+ * Image Decoder class reads input images with an image reader, so a large scan or photo never has to be decoded at full size
+ * The size of the image is read from its header first, images that already fit the decode target and the pixel budget
+ * are decoded exactly as ImageIO.read would decode them
+ * Larger images are decoded twice with source subsampling: a small preview finds the region that holds ink,
+ * then only that region is decoded, skipping rows and columns so its shorter side stays at least the decode target
+ * and the decoded image never holds more pixels than the budget
+ * Characters are scaled to the select button dimension anyway, so the skipped pixels would never reach the matchers
+ */
+public class ImageDecoder {
+
+	// longest side of the preview used to find the region with ink
+	private static final int previewSize = 512;
+
+	// method that decodes an image file, subsampled and cut to its ink if it is larger than needed
+	public static DecodedImage decode(File imageFile) throws IOException {
+
+		ImageInputStream inputStream = ImageIO.createImageInputStream(imageFile);
+
+		if (inputStream == null)
+			throw new IOException("file could not be opened: " + imageFile);
+
+		try {
+
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(inputStream);
+
+			if (!readers.hasNext())
+				throw new IOException("file is not a readable image: " + imageFile);
+
+			ImageReader reader = readers.next();
+
+			try {
+
+				// the stream is read twice for large images, so it has to be able to seek back
+				reader.setInput(inputStream, false, true);
+
+				int sourceWidth = reader.getWidth(0);
+				int sourceHeight = reader.getHeight(0);
+
+				Rectangle region = new Rectangle(0, 0, sourceWidth, sourceHeight);
+				int subsampling = getSubsampling(region);
+
+				// an image that is small enough is decoded whole, exactly like before
+				if (!CustomizationTool.subsampledDecoding || (subsampling == 1 && (long) sourceWidth * sourceHeight <= CustomizationTool.decodePixelBudget))
+					return new DecodedImage(reader.read(0), sourceWidth, sourceHeight, region, 1);
+
+				region = findInkRegion(reader, sourceWidth, sourceHeight);
+				subsampling = getSubsampling(region);
+
+				ImageReadParam readParam = reader.getDefaultReadParam();
+				readParam.setSourceRegion(region);
+				readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+				return new DecodedImage(reader.read(0, readParam), sourceWidth, sourceHeight, region, subsampling);
+
+			} finally {
+
+				reader.dispose();
+
+			}
+
+		} finally {
+
+			inputStream.close();
+
+		}
+
+	}
+
+	// method that decodes a small preview of the image and returns the region of the full image that holds every pixel
+	// that is not white, with a margin of one preview pixel on every side, or the whole image if it has no ink
+	private static Rectangle findInkRegion(ImageReader reader, int sourceWidth, int sourceHeight) throws IOException {
+
+		int previewSubsampling = Math.max(1, (Math.max(sourceWidth, sourceHeight) + previewSize - 1) / previewSize);
+
+		ImageReadParam readParam = reader.getDefaultReadParam();
+		readParam.setSourceSubsampling(previewSubsampling, previewSubsampling, 0, 0);
+
+		BufferedImage preview = reader.read(0, readParam);
+
+		int startX = preview.getWidth();
+		int startY = preview.getHeight();
+		int endX = -1;
+		int endY = -1;
+
+		int[] rowPixels = new int[preview.getWidth()];
+
+		for (int y = 0; y < preview.getHeight(); y++) {
+
+			CustomizationTool.getRowRGB(preview, y, rowPixels);
+
+			for (int x = 0; x < rowPixels.length; x++) {
+
+				// the same pixels the segmenter counts as ink
+				if (!CustomizationTool.isWhite(rowPixels[x])) {
+
+					startX = Math.min(startX, x);
+					startY = Math.min(startY, y);
+					endX = Math.max(endX, x);
+					endY = Math.max(endY, y);
+
+				}
+
+			}
+
+		}
+
+		if (endX < 0)
+			return new Rectangle(0, 0, sourceWidth, sourceHeight);
+
+		// a preview pixel stands for the block of source pixels after it, and thin strokes may fall between two samples
+		int left = Math.max(0, (startX - 1) * previewSubsampling);
+		int top = Math.max(0, (startY - 1) * previewSubsampling);
+		int right = Math.min(sourceWidth, (endX + 2) * previewSubsampling);
+		int bottom = Math.min(sourceHeight, (endY + 2) * previewSubsampling);
+
+		return new Rectangle(left, top, right - left, bottom - top);
+
+	}
+
+	// method that returns the largest subsampling that keeps the shorter side of the region at least the decode target,
+	// raised until the decoded region fits in the pixel budget
+	private static int getSubsampling(Rectangle region) {
+
+		int subsampling = Math.max(1, Math.min(region.width, region.height) / CustomizationTool.decodeTargetSize);
+
+		while ((long) ((region.width + subsampling - 1) / subsampling) * ((region.height + subsampling - 1) / subsampling)
+				> CustomizationTool.decodePixelBudget)
+
+			subsampling++;
+
+		return subsampling;
+
+	}
+
+	/*
+	 * Decoded Image class holds a decoded image with the size of the file it came from,
+	 * the region of the file that was decoded and the number of source pixels skipped for each decoded pixel
+	 */
+	public static class DecodedImage {
+
+		private final BufferedImage image;
+		private final int sourceWidth;
+		private final int sourceHeight;
+		private final Rectangle region;
+		private final int subsampling;
+
+		private DecodedImage(BufferedImage image, int sourceWidth, int sourceHeight, Rectangle region, int subsampling) {
+
+			this.image = image;
+			this.sourceWidth = sourceWidth;
+			this.sourceHeight = sourceHeight;
+			this.region = region;
+			this.subsampling = subsampling;
+
+		}
+
+		// getters
+		public BufferedImage getImage() {
+			return image;
+		}
+
+		public int getSourceWidth() {
+			return sourceWidth;
+		}
+
+		public int getSourceHeight() {
+			return sourceHeight;
+		}
+
+		public Rectangle getRegion() {
+			return region;
+		}
+
+		public int getSubsampling() {
+			return subsampling;
+		}
+
+	}
+
+}
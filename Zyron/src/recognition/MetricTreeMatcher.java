@@ -0,0 +1,36 @@
+package recognition;
+
+import java.util.HashMap;
+
+/*
+ * Metric Tree Matcher class finds the best template of each letter with the glyph tree of that letter
+ * The best template is the one with the fewest differing pixels, so the percentage matched is exactly the one
+ * the input screen gets by comparing every template, while most templates of a large store are never compared
+ */
+public class MetricTreeMatcher {
+
+	// method that fills a hash map with keys from 'a' to 'z' and values with the max percentage pixel matched
+	public static HashMap<Character, Double> fillMap(HashMap<Character, Double> characterHierarchy, GlyphBitmap inputPixels) {
+
+		for (int i = 0; i < 26; i++) {
+
+			char currentCharacter = (char) (97 + i);
+			int nearestDistance = TemplateCache.getTree(currentCharacter).findNearestDistance(inputPixels);
+
+			// a letter without templates keeps its percentage
+			if (nearestDistance < 0)
+				continue;
+
+			double percentageMatch = GlyphMatcher.percentageMatch(inputPixels, nearestDistance);
+
+			// if the new match percentage is higher, replace the old one
+			if (characterHierarchy.get(currentCharacter) < percentageMatch)
+				characterHierarchy.put(currentCharacter, percentageMatch);
+
+		}
+
+		return Recognizer.sortByValue(characterHierarchy);
+
+	}
+
+}
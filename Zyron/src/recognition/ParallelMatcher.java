@@ -0,0 +1,159 @@
+package recognition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Parallel Matcher class compares every character of a word with every pattern on a ForkJoinPool
+ * The work is a flat range of characters x templates (templates of all 26 letters) that is split in half until it is small
+ * Each task returns the max percentage matched per character and letter, and halves are merged by taking the larger value
+ * Tasks only read the input glyphs and a snapshot of the templates, so nothing shared is written while matching
+ */
+public class ParallelMatcher {
+
+	// number of comparisons a task performs before it stops splitting
+	private static final int sequentialThreshold = 16;
+
+	// pools shared by all conversions, one per parallelism asked for, never shut down so a thread about to invoke
+	// a pool is never rejected because another thread changed the parallelism
+	private static final ConcurrentHashMap<Integer, ForkJoinPool> pools = new ConcurrentHashMap<Integer, ForkJoinPool>();
+
+	// method that merges the max percentage matched of every letter into the hash map of each character
+	public static void fillMaps(ArrayList<HashMap<Character, Double>> characterHierarchy, ArrayList<GlyphBitmap> inputPixels,
+			int parallelism) {
+
+		// take a snapshot of every template with its letter so that tasks can address them by index
+		ArrayList<GlyphBitmap> templateGlyphs = new ArrayList<GlyphBitmap>();
+		ArrayList<Integer> templateLetters = new ArrayList<Integer>();
+
+		for (int i = 0; i < 26; i++) {
+
+			for (GlyphBitmap templateGlyph : TemplateCache.getTemplates((char) (97 + i))) {
+
+				templateGlyphs.add(templateGlyph);
+				templateLetters.add(i);
+
+			}
+
+		}
+
+		GlyphBitmap[] templates = templateGlyphs.toArray(new GlyphBitmap[0]);
+		int[] letters = new int[templates.length];
+
+		for (int i = 0; i < letters.length; i++)
+			letters[i] = templateLetters.get(i);
+
+		MatchTask rootTask = new MatchTask(inputPixels.toArray(new GlyphBitmap[0]), templates, letters, 0,
+				inputPixels.size() * templates.length);
+
+		double[][] maxPercentages = getPool(parallelism).invoke(rootTask);
+
+		// merge the per letter maxima into the hash maps, keeping the values already stored if they are higher
+		for (int i = 0; i < characterHierarchy.size(); i++) {
+
+			for (int j = 0; j < 26; j++) {
+
+				char currentCharacter = (char) (97 + j);
+				Double currentPercentage = characterHierarchy.get(i).get(currentCharacter);
+
+				if (currentPercentage == null || currentPercentage < maxPercentages[i][j])
+					characterHierarchy.get(i).put(currentCharacter, maxPercentages[i][j]);
+
+			}
+
+		}
+
+	}
+
+	// method that returns the shared pool with the requested parallelism
+	private static ForkJoinPool getPool(int parallelism) {
+
+		parallelism = Math.max(1, parallelism);
+
+		ForkJoinPool pool = pools.get(parallelism);
+
+		if (pool == null) {
+
+			ForkJoinPool newPool = new ForkJoinPool(parallelism);
+			pool = pools.putIfAbsent(parallelism, newPool);
+
+			// another thread created the pool first, the one created here is never used
+			if (pool == null)
+				pool = newPool;
+			else
+				newPool.shutdown();
+
+		}
+
+		return pool;
+
+	}
+
+	// task that compares a range of (character, template) pairs
+	private static class MatchTask extends RecursiveTask<double[][]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final GlyphBitmap[] inputGlyphs;
+		private final GlyphBitmap[] templates;
+		private final int[] letters;
+		private final int start;
+		private final int end;
+
+		private MatchTask(GlyphBitmap[] inputGlyphs, GlyphBitmap[] templates, int[] letters, int start, int end) {
+
+			this.inputGlyphs = inputGlyphs;
+			this.templates = templates;
+			this.letters = letters;
+			this.start = start;
+			this.end = end;
+
+		}
+
+		@Override
+		protected double[][] compute() {
+
+			// split the range in half until it is small enough to be compared on this thread
+			if (end - start > sequentialThreshold) {
+
+				int middle = (start + end) >>> 1;
+
+				MatchTask leftTask = new MatchTask(inputGlyphs, templates, letters, start, middle);
+				MatchTask rightTask = new MatchTask(inputGlyphs, templates, letters, middle, end);
+
+				leftTask.fork();
+				double[][] rightPercentages = rightTask.compute();
+				double[][] leftPercentages = leftTask.join();
+
+				for (int i = 0; i < leftPercentages.length; i++)
+					for (int j = 0; j < 26; j++)
+						leftPercentages[i][j] = Math.max(leftPercentages[i][j], rightPercentages[i][j]);
+
+				return leftPercentages;
+
+			}
+
+			double[][] maxPercentages = new double[inputGlyphs.length][26];
+
+			for (int k = start; k < end; k++) {
+
+				int characterIndex = k / templates.length;
+				int templateIndex = k % templates.length;
+
+				double percentageMatch = GlyphMatcher.percentageMatch(inputGlyphs[characterIndex], templates[templateIndex]);
+
+				if (maxPercentages[characterIndex][letters[templateIndex]] < percentageMatch)
+					maxPercentages[characterIndex][letters[templateIndex]] = percentageMatch;
+
+			}
+
+			return maxPercentages;
+
+		}
+
+	}
+
+}
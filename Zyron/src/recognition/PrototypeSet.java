@@ -0,0 +1,305 @@
+package recognition;
+
+import java.util.ArrayList;
+
+/*
+ * Prototype Set class groups the patterns of one letter into a bounded number of clusters with k-medoids
+ * The distance between two patterns is the number of pixels that differ (hamming distance of the packed glyphs)
+ * The medoid of every cluster is the pattern with the smallest total distance to the other patterns of its cluster,
+ * and only the medoids are compared with the characters, so the matching cost stops growing with the number of patterns
+ * A new pattern joins the cluster of its closest medoid and only that cluster picks its medoid again,
+ * the whole set is clustered again once the number of patterns has doubled since the last clustering
+ */
+public class PrototypeSet {
+
+	// number of times patterns are assigned and medoids are picked again during a full clustering
+	private static final int maxIterations = 10;
+
+	// largest number of prototypes kept for the letter
+	private final int maxPrototypes;
+
+	// every pattern of the letter
+	private final ArrayList<GlyphBitmap> members = new ArrayList<GlyphBitmap>();
+
+	// indexes of the members of each cluster and the index of the medoid of each cluster
+	private ArrayList<ArrayList<Integer>> clusters = new ArrayList<ArrayList<Integer>>();
+	private ArrayList<Integer> medoids = new ArrayList<Integer>();
+
+	// total distance from every member to the other members of its cluster
+	private ArrayList<Long> distanceSums = new ArrayList<Long>();
+
+	// number of members during the last full clustering
+	private int clusteredCount;
+
+	// medoid glyphs returned to the matchers, replaced instead of changed whenever a medoid changes
+	private ArrayList<GlyphBitmap> prototypes = new ArrayList<GlyphBitmap>();
+
+	// constructor clusters the given patterns into at most the given number of prototypes
+	public PrototypeSet(ArrayList<GlyphBitmap> patterns, int maxPrototypes) {
+
+		this.maxPrototypes = Math.max(1, maxPrototypes);
+
+		members.addAll(patterns);
+		cluster();
+
+	}
+
+	// method that adds a pattern to the cluster of its closest medoid and picks the medoid of that cluster again
+	public void add(GlyphBitmap pattern) {
+
+		int memberIndex = members.size();
+		members.add(pattern);
+
+		// the set is clustered again from scratch once it has grown a lot since the last time
+		if (members.size() >= 2 * clusteredCount && members.size() > maxPrototypes) {
+
+			cluster();
+			return;
+
+		}
+
+		// a pattern is its own prototype while the set has less patterns than prototypes
+		if (medoids.size() < maxPrototypes) {
+
+			ArrayList<Integer> cluster = new ArrayList<Integer>();
+			cluster.add(memberIndex);
+
+			clusters.add(cluster);
+			medoids.add(memberIndex);
+			distanceSums.add(0L);
+			updatePrototypes();
+
+			return;
+
+		}
+
+		int clusterIndex = findClosestMedoid(pattern);
+		ArrayList<Integer> cluster = clusters.get(clusterIndex);
+
+		// the distances to the new pattern are added to the totals of the members of its cluster
+		long newDistanceSum = 0;
+
+		for (int clusterMember : cluster) {
+
+			int distance = GlyphMatcher.countDifferences(pattern, members.get(clusterMember));
+
+			distanceSums.set(clusterMember, distanceSums.get(clusterMember) + distance);
+			newDistanceSum += distance;
+
+		}
+
+		cluster.add(memberIndex);
+		distanceSums.add(newDistanceSum);
+
+		int medoid = findMedoid(cluster);
+
+		if (medoid != medoids.get(clusterIndex)) {
+
+			medoids.set(clusterIndex, medoid);
+			updatePrototypes();
+
+		}
+
+	}
+
+	// method that clusters every member with k-medoids, starting from medoids that are far apart from each other
+	private void cluster() {
+
+		clusteredCount = members.size();
+		medoids = new ArrayList<Integer>();
+
+		if (members.size() <= maxPrototypes) {
+
+			// every pattern is its own prototype
+			clusters = new ArrayList<ArrayList<Integer>>();
+			distanceSums = new ArrayList<Long>();
+
+			for (int i = 0; i < members.size(); i++) {
+
+				ArrayList<Integer> cluster = new ArrayList<Integer>();
+				cluster.add(i);
+
+				clusters.add(cluster);
+				medoids.add(i);
+				distanceSums.add(0L);
+
+			}
+
+			updatePrototypes();
+
+			return;
+
+		}
+
+		// first medoids: start with the first member and keep adding the member furthest from every medoid picked so far
+		int[] closestDistances = new int[members.size()];
+		medoids.add(0);
+
+		for (int i = 0; i < members.size(); i++)
+			closestDistances[i] = GlyphMatcher.countDifferences(members.get(i), members.get(0));
+
+		while (medoids.size() < maxPrototypes) {
+
+			int furthestMember = 0;
+
+			for (int i = 1; i < members.size(); i++)
+				if (closestDistances[i] > closestDistances[furthestMember])
+
+					furthestMember = i;
+
+			// every member is already a copy of a medoid, so there is nothing left to pick
+			if (closestDistances[furthestMember] == 0)
+				break;
+
+			medoids.add(furthestMember);
+
+			for (int i = 0; i < members.size(); i++)
+				closestDistances[i] = Math.min(closestDistances[i], GlyphMatcher.countDifferences(members.get(i), members.get(furthestMember)));
+
+		}
+
+		// assign every member to its closest medoid, then move each medoid to the center of its cluster, until nothing moves
+		for (int iteration = 0; iteration < maxIterations; iteration++) {
+
+			assignMembers();
+
+			boolean medoidsChanged = false;
+
+			for (int i = 0; i < clusters.size(); i++) {
+
+				int medoid = findMedoid(clusters.get(i));
+
+				if (medoid != medoids.get(i)) {
+
+					medoids.set(i, medoid);
+					medoidsChanged = true;
+
+				}
+
+			}
+
+			if (!medoidsChanged)
+				break;
+
+			// the members are assigned again so the clusters always belong to the final medoids
+			if (iteration == maxIterations - 1)
+				assignMembers();
+
+		}
+
+		updatePrototypes();
+
+	}
+
+	// method that puts every member in the cluster of its closest medoid and computes the distance totals of every cluster
+	private void assignMembers() {
+
+		clusters = new ArrayList<ArrayList<Integer>>();
+		distanceSums = new ArrayList<Long>();
+
+		for (int i = 0; i < medoids.size(); i++)
+			clusters.add(new ArrayList<Integer>());
+
+		for (int i = 0; i < members.size(); i++) {
+
+			// a medoid always stays in its own cluster, even if another medoid is just as close
+			int clusterIndex = medoids.indexOf(i);
+
+			if (clusterIndex < 0)
+				clusterIndex = findClosestMedoid(members.get(i));
+
+			clusters.get(clusterIndex).add(i);
+			distanceSums.add(0L);
+
+		}
+
+		for (ArrayList<Integer> cluster : clusters) {
+
+			for (int i = 0; i < cluster.size(); i++) {
+
+				for (int j = i + 1; j < cluster.size(); j++) {
+
+					int distance = GlyphMatcher.countDifferences(members.get(cluster.get(i)), members.get(cluster.get(j)));
+
+					distanceSums.set(cluster.get(i), distanceSums.get(cluster.get(i)) + distance);
+					distanceSums.set(cluster.get(j), distanceSums.get(cluster.get(j)) + distance);
+
+				}
+
+			}
+
+		}
+
+	}
+
+	// method that returns the index of the cluster whose medoid is closest to the pattern
+	private int findClosestMedoid(GlyphBitmap pattern) {
+
+		int closestCluster = 0;
+		int closestDistance = Integer.MAX_VALUE;
+
+		for (int i = 0; i < medoids.size(); i++) {
+
+			int distance = GlyphMatcher.countDifferences(pattern, members.get(medoids.get(i)));
+
+			if (distance < closestDistance) {
+
+				closestCluster = i;
+				closestDistance = distance;
+
+			}
+
+		}
+
+		return closestCluster;
+
+	}
+
+	// method that returns the member of a cluster with the smallest total distance to the others
+	private int findMedoid(ArrayList<Integer> cluster) {
+
+		int medoid = cluster.get(0);
+
+		for (int clusterMember : cluster)
+			if (distanceSums.get(clusterMember) < distanceSums.get(medoid))
+
+				medoid = clusterMember;
+
+		return medoid;
+
+	}
+
+	// method that replaces the list of prototype glyphs with the current medoids
+	private void updatePrototypes() {
+
+		ArrayList<GlyphBitmap> updatedPrototypes = new ArrayList<GlyphBitmap>();
+
+		for (int medoid : medoids)
+			updatedPrototypes.add(members.get(medoid));
+
+		prototypes = updatedPrototypes;
+
+	}
+
+	// method that returns the medoid of every cluster, the list is never changed after it is returned
+	public ArrayList<GlyphBitmap> getPrototypes() {
+
+		return prototypes;
+
+	}
+
+	// method that returns the largest number of prototypes kept for the letter
+	public int getMaxPrototypes() {
+
+		return maxPrototypes;
+
+	}
+
+	// method that returns the number of patterns in the set
+	public int size() {
+
+		return members.size();
+
+	}
+
+}
@@ -0,0 +1,149 @@
+package recognition;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/*
+ * Recognition Events class holds the Java Flight Recorder events emitted around each stage of the recognition
+ * The events are only written when a recording is running with them enabled, otherwise begin and commit do nothing
+ * Attributes that cost something to compute are only filled in after shouldCommit returns true
+ * Stack traces are turned off because the stage and character index already tell where the time went
+ *
+ * record with: java -XX:StartFlightRecording=filename=zyron.jfr ... and read with: jfr print --categories Zyron zyron.jfr
+ */
+public class RecognitionEvents {
+
+	// event around the decoding of an image file
+	@Name("zyron.Decode")
+	@Label("Decode")
+	@Category({"Zyron", "Recognition"})
+	@Description("Image file read and decoded into a buffered image")
+	@StackTrace(false)
+	public static class DecodeEvent extends Event {
+
+		@Label("Source")
+		public String source;
+
+		@Label("File Size")
+		@DataAmount
+		public long fileSize;
+
+		@Label("Source Width")
+		public int sourceWidth;
+
+		@Label("Source Height")
+		public int sourceHeight;
+
+		@Label("Subsampling")
+		@Description("Number of source pixels skipped in each direction for every decoded pixel")
+		public int subsampling;
+
+		@Label("Width")
+		public int width;
+
+		@Label("Height")
+		public int height;
+
+	}
+
+	// event around breaking a word image into characters
+	@Name("zyron.Segmentation")
+	@Label("Segmentation")
+	@Category({"Zyron", "Recognition"})
+	@Description("Word image broken down into characters")
+	@StackTrace(false)
+	public static class SegmentationEvent extends Event {
+
+		@Label("Width")
+		public int width;
+
+		@Label("Height")
+		public int height;
+
+		@Label("Character Count")
+		public int characterCount;
+
+	}
+
+	// event around cropping and resizing one character
+	@Name("zyron.Normalization")
+	@Label("Normalization")
+	@Category({"Zyron", "Recognition"})
+	@Description("Character cropped and resized to the template size")
+	@StackTrace(false)
+	public static class NormalizationEvent extends Event {
+
+		@Label("Character Index")
+		public int characterIndex;
+
+		@Label("Width")
+		public int width;
+
+		@Label("Height")
+		public int height;
+
+	}
+
+	// event around comparing a character with the stored templates
+	@Name("zyron.Matching")
+	@Label("Matching")
+	@Category({"Zyron", "Recognition"})
+	@Description("Character compared with the stored templates, character index is -1 when the whole word is matched at once")
+	@StackTrace(false)
+	public static class MatchingEvent extends Event {
+
+		@Label("Character Index")
+		public int characterIndex;
+
+		@Label("Character Count")
+		public int characterCount;
+
+		@Label("Mode")
+		public String mode;
+
+		@Label("Best Letter")
+		public char letter;
+
+		@Label("Best Percentage")
+		public double percentage;
+
+		@Label("Template Count")
+		public int templateCount;
+
+		@Label("Pixels Compared")
+		@Description("Pixels compared at full resolution, an upper bound in coarse to fine mode")
+		public long pixelsCompared;
+
+	}
+
+	// event around searching the dictionary for the best words
+	@Name("zyron.Ranking")
+	@Label("Ranking")
+	@Category({"Zyron", "Recognition"})
+	@Description("Dictionary searched for the words that best fit the characters")
+	@StackTrace(false)
+	public static class RankingEvent extends Event {
+
+		@Label("Word Length")
+		public int wordLength;
+
+		@Label("Search")
+		public String search;
+
+		@Label("Candidate Words")
+		public int candidateWords;
+
+		@Label("Top Choice Count")
+		public int topChoiceCount;
+
+		@Label("Best Word")
+		public String bestWord;
+
+	}
+
+}
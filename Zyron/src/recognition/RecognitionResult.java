@@ -0,0 +1,129 @@
+package recognition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Recognition Result class stores what the recognizer found for one image
+ * Contains the sorted percentage matched of every letter for each character and the best dictionary words
+ * Can be written as a single line of JSON for batch processing
+ */
+public class RecognitionResult {
+
+	// name of the image the result belongs to
+	private final String source;
+
+	// sorted letter hash map of each character and the best words with their points
+	private final ArrayList<HashMap<Character, Double>> characterHierarchy;
+	private final LinkedHashMap<String, Double> topChoices;
+
+	// constructor taking in the source, the character hierarchy and the top choices
+	public RecognitionResult(String source, ArrayList<HashMap<Character, Double>> characterHierarchy,
+			LinkedHashMap<String, Double> topChoices) {
+
+		this.source = source;
+		this.characterHierarchy = characterHierarchy;
+		this.topChoices = topChoices;
+
+	}
+
+	// method that returns the word with the most points, or an empty string if no word has the same length
+	public String getBestWord() {
+
+		for (String word : topChoices.keySet())
+			return word;
+
+		return "";
+
+	}
+
+	// method that writes the result as one line of JSON
+	public String toJson() {
+
+		StringBuilder json = new StringBuilder();
+
+		json.append("{\"source\":").append(quote(source));
+
+		// letters of each character in descending order of percentage matched
+		json.append(",\"characters\":[");
+
+		for (int i = 0; i < characterHierarchy.size(); i++) {
+
+			if (i > 0)
+				json.append(',');
+
+			json.append('[');
+
+			boolean first = true;
+
+			for (Map.Entry<Character, Double> letter : characterHierarchy.get(i).entrySet()) {
+
+				if (!first)
+					json.append(',');
+
+				json.append("{\"letter\":").append(quote(String.valueOf(letter.getKey()))).append(",\"score\":")
+						.append(letter.getValue()).append('}');
+				first = false;
+
+			}
+
+			json.append(']');
+
+		}
+
+		// dictionary words in descending order of points
+		json.append("],\"words\":[");
+
+		boolean first = true;
+
+		for (Map.Entry<String, Double> choice : topChoices.entrySet()) {
+
+			if (!first)
+				json.append(',');
+
+			json.append("{\"word\":").append(quote(choice.getKey().trim())).append(",\"score\":").append(choice.getValue())
+					.append('}');
+			first = false;
+
+		}
+
+		return json.append("]}").toString();
+
+	}
+
+	// method that turns a text into a JSON string literal
+	private static String quote(String text) {
+
+		StringBuilder quoted = new StringBuilder("\"");
+
+		for (char character : text.toCharArray()) {
+
+			if (character == '"' || character == '\\')
+				quoted.append('\\').append(character);
+			else if (character < 0x20)
+				quoted.append(String.format("\\u%04x", (int) character));
+			else
+				quoted.append(character);
+
+		}
+
+		return quoted.append('"').toString();
+
+	}
+
+	// getters
+	public String getSource() {
+		return source;
+	}
+
+	public ArrayList<HashMap<Character, Double>> getCharacterHierarchy() {
+		return characterHierarchy;
+	}
+
+	public LinkedHashMap<String, Double> getTopChoices() {
+		return topChoices;
+	}
+
+}
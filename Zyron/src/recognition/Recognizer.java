@@ -0,0 +1,430 @@
+package recognition;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import utils.CustomizationTool;
+
+/*
+ * Recognizer class holds the whole recognition flow without any JFrame, so it can run with java.awt.headless=true
+ * A word image is broken down into characters, every character is compared with the stored patterns,
+ * and the dictionary is searched for the words that best fit the percentage matched of each character
+ * The display screens and the batch launcher both use these static methods
+ */
+public class Recognizer {
+
+	// number of words returned by default, the same number the assumption screen displays
+	public static final int defaultTopChoiceCount = 10;
+
+	// method that reads an image file and recognizes the word written in it, a file recognized before is only ranked again
+	public static RecognitionResult recognize(File imageFile, int topChoiceCount) throws IOException {
+
+		if (!CustomizationTool.resultCaching)
+			return recognize(imageFile.getName(), readImage(imageFile), topChoiceCount);
+
+		ByteBuffer imageKey = ResultCache.getImageKey(imageFile);
+		ArrayList<HashMap<Character, Double>> cachedHierarchy = ResultCache.getImageResult(imageKey);
+
+		if (cachedHierarchy != null)
+			return new RecognitionResult(imageFile.getName(), cachedHierarchy, getTopChoices(cachedHierarchy, topChoiceCount));
+
+		long generation = ResultCache.getGeneration();
+		RecognitionResult result = recognize(imageFile.getName(), readImage(imageFile), topChoiceCount);
+
+		ResultCache.putImageResult(imageKey, result.getCharacterHierarchy(), generation);
+
+		return result;
+
+	}
+
+	// method that reads and decodes an image file, large images are decoded subsampled and cut to the region with ink
+	public static BufferedImage readImage(File imageFile) throws IOException {
+
+		RecognitionEvents.DecodeEvent decodeEvent = new RecognitionEvents.DecodeEvent();
+		decodeEvent.begin();
+
+		ImageDecoder.DecodedImage decodedImage = ImageDecoder.decode(imageFile);
+		BufferedImage loadedImage = decodedImage.getImage();
+
+		decodeEvent.end();
+
+		if (decodeEvent.shouldCommit()) {
+
+			decodeEvent.source = imageFile.getPath();
+			decodeEvent.fileSize = imageFile.length();
+			decodeEvent.sourceWidth = decodedImage.getSourceWidth();
+			decodeEvent.sourceHeight = decodedImage.getSourceHeight();
+			decodeEvent.subsampling = decodedImage.getSubsampling();
+			decodeEvent.width = loadedImage.getWidth();
+			decodeEvent.height = loadedImage.getHeight();
+			decodeEvent.commit();
+
+		}
+
+		return loadedImage;
+
+	}
+
+	// method that recognizes every image inside a directory, in the order of the file names
+	public static ArrayList<RecognitionResult> recognizeDirectory(File directory, int topChoiceCount) throws IOException {
+
+		File[] imageFiles = directory.listFiles(CustomizationTool.imageFilter);
+
+		if (imageFiles == null)
+			throw new FileNotFoundException("directory not found: " + directory);
+
+		Arrays.sort(imageFiles);
+
+		ArrayList<RecognitionResult> results = new ArrayList<RecognitionResult>();
+
+		for (File imageFile : imageFiles)
+			results.add(recognize(imageFile, topChoiceCount));
+
+		return results;
+
+	}
+
+	// method that recognizes the word written in an image that is already loaded
+	public static RecognitionResult recognize(String source, BufferedImage wordImage, int topChoiceCount) {
+
+		ArrayList<GlyphBitmap> inputPixels = new ArrayList<GlyphBitmap>();
+
+		for (BufferedImage characterImage : normalizeWord(wordImage))
+			inputPixels.add(GlyphBitmap.fromImage(characterImage));
+
+		ArrayList<HashMap<Character, Double>> characterHierarchy = createHierarchy(inputPixels.size());
+		fillMaps(characterHierarchy, inputPixels);
+
+		return new RecognitionResult(source, characterHierarchy, getTopChoices(characterHierarchy, topChoiceCount));
+
+	}
+
+	// method that breaks a word into characters and crops and resizes each character to a square
+	public static ArrayList<BufferedImage> normalizeWord(BufferedImage wordImage) {
+
+		RecognitionEvents.SegmentationEvent segmentationEvent = new RecognitionEvents.SegmentationEvent();
+		segmentationEvent.begin();
+
+		ArrayList<BufferedImage> wordList = CustomizationTool.loadWord(wordImage);
+
+		segmentationEvent.end();
+
+		if (segmentationEvent.shouldCommit()) {
+
+			segmentationEvent.width = wordImage.getWidth();
+			segmentationEvent.height = wordImage.getHeight();
+			segmentationEvent.characterCount = wordList.size();
+			segmentationEvent.commit();
+
+		}
+
+		for (int i = 0; i < wordList.size(); i++) {
+
+			RecognitionEvents.NormalizationEvent normalizationEvent = new RecognitionEvents.NormalizationEvent();
+			normalizationEvent.begin();
+
+			BufferedImage characterImage = wordList.get(i);
+			wordList.set(i, CustomizationTool.normalizeCharacter(characterImage));
+
+			normalizationEvent.end();
+
+			if (normalizationEvent.shouldCommit()) {
+
+				normalizationEvent.characterIndex = i;
+				normalizationEvent.width = characterImage.getWidth();
+				normalizationEvent.height = characterImage.getHeight();
+				normalizationEvent.commit();
+
+			}
+
+		}
+
+		return wordList;
+
+	}
+
+	// method that creates a hash map for each character with every letter from 'a' to 'z' set to 0
+	public static ArrayList<HashMap<Character, Double>> createHierarchy(int characterCount) {
+
+		ArrayList<HashMap<Character, Double>> characterHierarchy = new ArrayList<HashMap<Character, Double>>();
+
+		for (int i = 0; i < characterCount; i++) {
+
+			characterHierarchy.add(new HashMap<Character, Double>());
+
+			for (int j = 0; j < 26; j++)
+				characterHierarchy.get(i).put((char) (97 + j), 0.0);
+
+		}
+
+		return characterHierarchy;
+
+	}
+
+	// method that fills and sorts the hash map of every character, with coarse to fine matching or in parallel if enabled
+	public static void fillMaps(ArrayList<HashMap<Character, Double>> characterHierarchy, ArrayList<GlyphBitmap> inputPixels) {
+
+		if (CustomizationTool.parallelRecognition && !CustomizationTool.coarseToFineMatching && !CustomizationTool.metricTreeMatching) {
+
+			// the whole word is matched at once, so a single event covers every character
+			RecognitionEvents.MatchingEvent matchingEvent = new RecognitionEvents.MatchingEvent();
+			matchingEvent.begin();
+
+			long generation = ResultCache.getGeneration();
+
+			// characters matched before are taken from the result cache, only the others are matched
+			ArrayList<Integer> unmatchedIndexes = new ArrayList<Integer>();
+			ArrayList<ByteBuffer> characterKeys = new ArrayList<ByteBuffer>();
+
+			for (int i = 0; i < characterHierarchy.size(); i++) {
+
+				characterKeys.add(CustomizationTool.resultCaching ? ResultCache.getCharacterKey(inputPixels.get(i)) : null);
+				HashMap<Character, Double> cachedMap = characterKeys.get(i) == null ? null : ResultCache.getCharacterResult(characterKeys.get(i));
+
+				if (cachedMap == null)
+					unmatchedIndexes.add(i);
+				else
+					characterHierarchy.set(i, mergeCachedMap(characterHierarchy.get(i), cachedMap));
+
+			}
+
+			ArrayList<HashMap<Character, Double>> unmatchedHierarchy = new ArrayList<HashMap<Character, Double>>();
+			ArrayList<GlyphBitmap> unmatchedPixels = new ArrayList<GlyphBitmap>();
+
+			for (int unmatchedIndex : unmatchedIndexes) {
+
+				unmatchedHierarchy.add(characterHierarchy.get(unmatchedIndex));
+				unmatchedPixels.add(inputPixels.get(unmatchedIndex));
+
+			}
+
+			if (!unmatchedPixels.isEmpty())
+				ParallelMatcher.fillMaps(unmatchedHierarchy, unmatchedPixels, CustomizationTool.recognitionParallelism);
+
+			for (int i = 0; i < unmatchedIndexes.size(); i++) {
+
+				int unmatchedIndex = unmatchedIndexes.get(i);
+				characterHierarchy.set(unmatchedIndex, sortByValue(unmatchedHierarchy.get(i)));
+
+				if (characterKeys.get(unmatchedIndex) != null)
+					ResultCache.putCharacterResult(characterKeys.get(unmatchedIndex), characterHierarchy.get(unmatchedIndex), generation);
+
+			}
+
+			matchingEvent.end();
+
+			if (matchingEvent.shouldCommit()) {
+
+				matchingEvent.characterIndex = -1;
+				matchingEvent.characterCount = unmatchedIndexes.size();
+				matchingEvent.mode = "parallel";
+				matchingEvent.templateCount = countTemplates();
+				matchingEvent.pixelsCompared = (long) matchingEvent.characterCount * matchingEvent.templateCount
+						* CustomizationTool.totalPixels;
+				matchingEvent.commit();
+
+			}
+
+		}
+
+		else for (int i = 0; i < characterHierarchy.size(); i++)
+
+			matchCharacter(characterHierarchy, inputPixels, i);
+
+	}
+
+	// method that fills and sorts the hash map of one character of the word, splitting the templates on the pool if enabled
+	public static void matchCharacter(ArrayList<HashMap<Character, Double>> characterHierarchy, ArrayList<GlyphBitmap> inputPixels,
+			int characterIndex) {
+
+		RecognitionEvents.MatchingEvent matchingEvent = new RecognitionEvents.MatchingEvent();
+		matchingEvent.begin();
+
+		boolean parallelMatching = CustomizationTool.parallelRecognition && !CustomizationTool.coarseToFineMatching
+				&& !CustomizationTool.metricTreeMatching;
+		HashMap<Character, Double> characterMap;
+
+		long generation = ResultCache.getGeneration();
+		ByteBuffer characterKey = CustomizationTool.resultCaching ? ResultCache.getCharacterKey(inputPixels.get(characterIndex)) : null;
+		HashMap<Character, Double> cachedMap = characterKey == null ? null : ResultCache.getCharacterResult(characterKey);
+
+		// a character matched before is taken from the result cache
+		if (cachedMap != null) {
+
+			characterHierarchy.set(characterIndex, mergeCachedMap(characterHierarchy.get(characterIndex), cachedMap));
+			return;
+
+		}
+
+		if (parallelMatching) {
+
+			ArrayList<HashMap<Character, Double>> singleCharacter = new ArrayList<HashMap<Character, Double>>();
+			singleCharacter.add(characterHierarchy.get(characterIndex));
+
+			ArrayList<GlyphBitmap> singleGlyph = new ArrayList<GlyphBitmap>();
+			singleGlyph.add(inputPixels.get(characterIndex));
+
+			ParallelMatcher.fillMaps(singleCharacter, singleGlyph, CustomizationTool.recognitionParallelism);
+			characterMap = sortByValue(singleCharacter.get(0));
+
+		}
+
+		else
+			characterMap = fillMap(characterHierarchy.get(characterIndex), inputPixels.get(characterIndex));
+
+		characterHierarchy.set(characterIndex, characterMap);
+
+		if (characterKey != null)
+			ResultCache.putCharacterResult(characterKey, characterMap, generation);
+
+		matchingEvent.end();
+
+		if (matchingEvent.shouldCommit()) {
+
+			// the map is sorted, so its first entry is the best letter
+			Map.Entry<Character, Double> bestEntry = characterMap.entrySet().iterator().next();
+
+			matchingEvent.characterIndex = characterIndex;
+			matchingEvent.characterCount = 1;
+			matchingEvent.mode = parallelMatching ? "parallel" : CustomizationTool.coarseToFineMatching ? "coarseToFine"
+					: CustomizationTool.metricTreeMatching ? "metricTree" : "exact";
+			matchingEvent.letter = bestEntry.getKey();
+			matchingEvent.percentage = bestEntry.getValue();
+			matchingEvent.templateCount = countTemplates();
+			matchingEvent.pixelsCompared = (long) matchingEvent.templateCount * CustomizationTool.totalPixels;
+			matchingEvent.commit();
+
+		}
+
+	}
+
+	// method that keeps the higher percentage of every letter of a character map and a cached map, sorted like a matched map
+	private static HashMap<Character, Double> mergeCachedMap(HashMap<Character, Double> characterMap, HashMap<Character, Double> cachedMap) {
+
+		for (Map.Entry<Character, Double> cachedEntry : cachedMap.entrySet()) {
+
+			Double currentPercentage = characterMap.get(cachedEntry.getKey());
+
+			if (currentPercentage == null || currentPercentage < cachedEntry.getValue())
+				characterMap.put(cachedEntry.getKey(), cachedEntry.getValue());
+
+		}
+
+		return sortByValue(characterMap);
+
+	}
+
+	// method that fills a hash map with keys from 'a' to 'z' and values with the max percentage pixel matched
+	public static HashMap<Character, Double> fillMap(HashMap<Character, Double> characterHierarchy, GlyphBitmap inputPixels) {
+
+		// only the templates that survive the coarse levels are compared at full size
+		if (CustomizationTool.coarseToFineMatching)
+			return CoarseToFineMatcher.fillMap(characterHierarchy, inputPixels);
+
+		// only the branches of the glyph tree that can hold a better template are compared
+		if (CustomizationTool.metricTreeMatching)
+			return MetricTreeMatcher.fillMap(characterHierarchy, inputPixels);
+
+		// creating a for loop to compare all 26 characters in the alphabet with the input image
+		for (int i = 0; i < 26; i++) {
+
+			char currentCharacter = (char) (97 + i);
+
+			// loop through every pre-processed pattern of this character stored in the template cache
+			for (GlyphBitmap orderedMapPixels : TemplateCache.getTemplates(currentCharacter)) {
+
+				// count the pixels matched 64 at a time
+				double percentageMatch = GlyphMatcher.percentageMatch(inputPixels, orderedMapPixels);
+
+				// if the new match percentage is higher, replace the old one
+				if (characterHierarchy.get(currentCharacter) < percentageMatch)
+					characterHierarchy.put(currentCharacter, percentageMatch);
+
+			}
+
+		}
+
+		return sortByValue(characterHierarchy);
+
+	}
+
+	// method that returns the given number of dictionary words that best fit the characters, sorted by points
+	public static LinkedHashMap<String, Double> getTopChoices(ArrayList<HashMap<Character, Double>> characterHierarchy,
+			int topChoiceCount) {
+
+		RecognitionEvents.RankingEvent rankingEvent = new RecognitionEvents.RankingEvent();
+		rankingEvent.begin();
+
+		LinkedHashMap<String, Double> topChoices = Dictionary.getTopChoices(characterHierarchy, topChoiceCount);
+
+		rankingEvent.end();
+
+		if (rankingEvent.shouldCommit()) {
+
+			rankingEvent.wordLength = characterHierarchy.size();
+			rankingEvent.search = CustomizationTool.trieWordSearch ? "trie" : "scan";
+			rankingEvent.candidateWords = Dictionary.countWords(characterHierarchy.size());
+			rankingEvent.topChoiceCount = topChoiceCount;
+			rankingEvent.bestWord = topChoices.isEmpty() ? null : topChoices.keySet().iterator().next();
+			rankingEvent.commit();
+
+		}
+
+		return topChoices;
+
+	}
+
+	// method that counts the templates of all 26 characters
+	private static int countTemplates() {
+
+		int templateCount = 0;
+
+		for (int i = 0; i < 26; i++)
+			templateCount += TemplateCache.getTemplates((char) (97 + i)).size();
+
+		return templateCount;
+
+	}
+
+	// method that sorts a hash map with double values in descending order
+	public static <K> HashMap<K, Double> sortByValue(HashMap<K, Double> unorderedMap) {
+
+		// Create a sortList from elements of HashMap
+		LinkedList<Map.Entry<K, Double>> sortList = new LinkedList<Map.Entry<K, Double>>(unorderedMap.entrySet());
+
+		// Sort the sortList
+		Collections.sort(sortList, new Comparator<Map.Entry<K, Double>>() {
+			public int compare(Map.Entry<K, Double> value1, Map.Entry<K, Double> value2) {
+
+				return (value1.getValue()).compareTo(value2.getValue());
+
+			}
+		});
+
+		// reverse the sorted list
+		Collections.reverse(sortList);
+
+		// put data from sortList to a new hash map
+		HashMap<K, Double> orderedMap = new LinkedHashMap<K, Double>();
+
+		// loop through the sorted map to put all the keys and values into a new map to be returned
+		for (Map.Entry<K, Double> pair : sortList) {
+			orderedMap.put(pair.getKey(), pair.getValue());
+		}
+
+		return orderedMap;
+
+	}
+
+}
@@ -0,0 +1,307 @@
+package recognition;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import utils.CustomizationTool;
+
+/*
+ * Result Cache class remembers the percentage matched of every letter for the inputs recognized before
+ * Whole images are keyed by a SHA-256 hash of their file content, so a file submitted again is neither decoded nor matched
+ * Characters are keyed by a SHA-256 hash of their packed glyph, so the same drawing in a different file is not matched again,
+ * or with perceptual keys by which blocks of the glyph hold ink, so near identical drawings share their result
+ * Both caches drop the entry used least recently once they are full, and are emptied whenever the patterns change
+ * A result matched while the patterns changed is never stored, so the caches only ever hold results of the current patterns
+ */
+public class ResultCache {
+
+	// number of blocks on each side of the grid a perceptual key is made of
+	private static final int perceptualGridSize = 16;
+
+	// cached letter maps of whole images and of single characters, in order of last use
+	private static final LinkedHashMap<ByteBuffer, ArrayList<HashMap<Character, Double>>> imageResults
+			= new LinkedHashMap<ByteBuffer, ArrayList<HashMap<Character, Double>>>(16, 0.75f, true);
+	private static final LinkedHashMap<ByteBuffer, HashMap<Character, Double>> characterResults
+			= new LinkedHashMap<ByteBuffer, HashMap<Character, Double>>(16, 0.75f, true);
+
+	// number of times the patterns changed, results matched before the last change are not stored
+	private static long generation;
+
+	// settings the cached results were matched with, the caches are emptied if any of them changes
+	private static String matchingSettings = getMatchingSettings();
+
+	// hit and miss counters of both caches
+	private static long imageHits;
+	private static long imageMisses;
+	private static long characterHits;
+	private static long characterMisses;
+
+	// method that returns the letter maps of an image recognized before, or null if it has to be recognized
+	public static synchronized ArrayList<HashMap<Character, Double>> getImageResult(ByteBuffer imageKey) {
+
+		checkSettings();
+
+		ArrayList<HashMap<Character, Double>> characterHierarchy = imageKey == null ? null : imageResults.get(imageKey);
+
+		if (characterHierarchy == null) {
+
+			imageMisses++;
+			return null;
+
+		}
+
+		imageHits++;
+
+		// every caller gets its own copy, so a map changed by a screen never changes the cache
+		ArrayList<HashMap<Character, Double>> hierarchyCopy = new ArrayList<HashMap<Character, Double>>();
+
+		for (HashMap<Character, Double> characterMap : characterHierarchy)
+			hierarchyCopy.add(new LinkedHashMap<Character, Double>(characterMap));
+
+		return hierarchyCopy;
+
+	}
+
+	// method that stores the letter maps of an image, unless the patterns changed since the given generation
+	public static synchronized void putImageResult(ByteBuffer imageKey, ArrayList<HashMap<Character, Double>> characterHierarchy,
+			long matchedGeneration) {
+
+		if (imageKey == null || matchedGeneration != generation || CustomizationTool.imageResultCacheSize <= 0)
+			return;
+
+		ArrayList<HashMap<Character, Double>> hierarchyCopy = new ArrayList<HashMap<Character, Double>>();
+
+		for (HashMap<Character, Double> characterMap : characterHierarchy)
+			hierarchyCopy.add(new LinkedHashMap<Character, Double>(characterMap));
+
+		imageResults.put(imageKey, hierarchyCopy);
+		removeEldest(imageResults, CustomizationTool.imageResultCacheSize);
+
+	}
+
+	// method that returns the letter map of a character matched before, or null if it has to be matched
+	public static synchronized HashMap<Character, Double> getCharacterResult(ByteBuffer characterKey) {
+
+		checkSettings();
+
+		HashMap<Character, Double> characterMap = characterResults.get(characterKey);
+
+		if (characterMap == null) {
+
+			characterMisses++;
+			return null;
+
+		}
+
+		characterHits++;
+
+		return new LinkedHashMap<Character, Double>(characterMap);
+
+	}
+
+	// method that stores the letter map of a character, unless the patterns changed since the given generation
+	public static synchronized void putCharacterResult(ByteBuffer characterKey, HashMap<Character, Double> characterMap,
+			long matchedGeneration) {
+
+		if (matchedGeneration != generation || CustomizationTool.characterResultCacheSize <= 0)
+			return;
+
+		characterResults.put(characterKey, new LinkedHashMap<Character, Double>(characterMap));
+		removeEldest(characterResults, CustomizationTool.characterResultCacheSize);
+
+	}
+
+	// method that removes the entries used least recently until the cache fits its size
+	private static <V> void removeEldest(LinkedHashMap<ByteBuffer, V> results, int maxSize) {
+
+		while (results.size() > maxSize)
+			results.remove(results.keySet().iterator().next());
+
+	}
+
+	// method that returns the key of an image file, a hash of its content, or null if the file cannot be read
+	public static ByteBuffer getImageKey(File imageFile) {
+
+		MessageDigest digest = createDigest();
+		byte[] buffer = new byte[65536];
+
+		try (InputStream inputStream = new FileInputStream(imageFile)) {
+
+			int readCount;
+
+			while ((readCount = inputStream.read(buffer)) > 0)
+				digest.update(buffer, 0, readCount);
+
+		} catch (IOException error) {
+
+			return null;
+
+		}
+
+		return ByteBuffer.wrap(digest.digest());
+
+	}
+
+	// method that returns the key of a character, a hash of its packed glyph or its perceptual key if enabled
+	public static ByteBuffer getCharacterKey(GlyphBitmap glyph) {
+
+		if (CustomizationTool.perceptualResultKeys)
+			return getPerceptualKey(glyph);
+
+		MessageDigest digest = createDigest();
+		LongBuffer words = glyph.getWords();
+		ByteBuffer wordBytes = ByteBuffer.allocate(8 * 64);
+
+		for (int i = 0; i < glyph.getWordCount(); i++) {
+
+			wordBytes.putLong(words.get(i));
+
+			if (!wordBytes.hasRemaining()) {
+
+				digest.update(wordBytes.array());
+				wordBytes.clear();
+
+			}
+
+		}
+
+		digest.update(wordBytes.array(), 0, wordBytes.position());
+
+		return ByteBuffer.wrap(digest.digest());
+
+	}
+
+	// method that returns one bit per block of a grid laid over the glyph, set if the block holds more ink than
+	// an average block of the glyph, small differences of the strokes rarely move a block across that threshold
+	private static ByteBuffer getPerceptualKey(GlyphBitmap glyph) {
+
+		int[] blockCounts = new int[perceptualGridSize * perceptualGridSize];
+		int totalCount = 0;
+
+		LongBuffer words = glyph.getWords();
+
+		// pixels are packed column after column, x * height + y
+		for (int i = 0; i < glyph.getWordCount(); i++) {
+
+			long word = words.get(i);
+
+			while (word != 0) {
+
+				int index = i * 64 + Long.numberOfTrailingZeros(word);
+				int x = index / glyph.getHeight();
+				int y = index % glyph.getHeight();
+
+				blockCounts[x * perceptualGridSize / glyph.getWidth() * perceptualGridSize + y * perceptualGridSize / glyph.getHeight()]++;
+				totalCount++;
+
+				word &= word - 1;
+
+			}
+
+		}
+
+		byte[] key = new byte[blockCounts.length / 8];
+
+		for (int i = 0; i < blockCounts.length; i++)
+			if ((long) blockCounts[i] * blockCounts.length > totalCount)
+
+				key[i / 8] |= 1 << (i % 8);
+
+		return ByteBuffer.wrap(key);
+
+	}
+
+	// method that creates a SHA-256 digest, which every java runtime provides
+	private static MessageDigest createDigest() {
+
+		try {
+
+			return MessageDigest.getInstance("SHA-256");
+
+		} catch (NoSuchAlgorithmException error) {
+
+			throw new IllegalStateException(error);
+
+		}
+
+	}
+
+	// method that empties both caches because the patterns changed, the counters are kept
+	public static synchronized void clear() {
+
+		generation++;
+		imageResults.clear();
+		characterResults.clear();
+
+	}
+
+	// method that empties both caches if a setting that changes the percentages matched was changed
+	private static void checkSettings() {
+
+		String currentSettings = getMatchingSettings();
+
+		if (!currentSettings.equals(matchingSettings)) {
+
+			matchingSettings = currentSettings;
+			clear();
+
+		}
+
+	}
+
+	// method that returns the settings the percentages matched depend on, exact matching in parallel or with the glyph tree
+	// gives the same percentages as comparing every pattern, so only the settings that may change them are included,
+	// with the decode settings since images are keyed by their file content and not by the pixels decoded from it
+	private static String getMatchingSettings() {
+
+		return CustomizationTool.selectButtonDimension + " " + CustomizationTool.darkValue + " " + CustomizationTool.perceptualResultKeys
+				+ " " + CustomizationTool.coarseToFineMatching + " " + CustomizationTool.coarseToFineTolerance + " "
+				+ Arrays.toString(CustomizationTool.pyramidLevelSizes) + " " + CustomizationTool.prototypeCompaction + " "
+				+ CustomizationTool.prototypesPerLetter + " " + CustomizationTool.subsampledDecoding + " "
+				+ CustomizationTool.decodeTargetSize + " " + CustomizationTool.decodePixelBudget;
+
+	}
+
+	// method that returns the number of times the patterns changed, passed back when storing a result
+	public static synchronized long getGeneration() {
+
+		return generation;
+
+	}
+
+	// method that returns the hit and miss counters of both caches as one line of text
+	public static synchronized String getStatistics() {
+
+		return String.format("image results: %d hits, %d misses, %d cached; character results: %d hits, %d misses, %d cached",
+				imageHits, imageMisses, imageResults.size(), characterHits, characterMisses, characterResults.size());
+
+	}
+
+	// getters
+	public static synchronized long getImageHits() {
+		return imageHits;
+	}
+
+	public static synchronized long getImageMisses() {
+		return imageMisses;
+	}
+
+	public static synchronized long getCharacterHits() {
+		return characterHits;
+	}
+
+	public static synchronized long getCharacterMisses() {
+		return characterMisses;
+	}
+
+}
@@ -0,0 +1,79 @@
+package recognition;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+import utils.CustomizationTool;
+
+/*
+ * Segmenter class breaks a word image into characters in a single pass over its pixels
+ * The ink profile counts the pixels that are not white in every column, reading the image a row at a time
+ * A character ends at the first white column after some ink, the same place the word used to be cut,
+ * and the last character is kept even if no white column follows it
+ */
+public class Segmenter {
+
+	// method that returns the number of pixels that are not white in each column of the image
+	public static int[] getInkProfile(BufferedImage wordImage) {
+
+		int[] inkProfile = new int[wordImage.getWidth()];
+		int[] rowPixels = new int[wordImage.getWidth()];
+
+		for (int y = 0; y < wordImage.getHeight(); y++) {
+
+			CustomizationTool.getRowRGB(wordImage, y, rowPixels);
+
+			for (int x = 0; x < rowPixels.length; x++)
+				if (!CustomizationTool.isWhite(rowPixels[x]))
+
+					inkProfile[x]++;
+
+		}
+
+		return inkProfile;
+
+	}
+
+	// method that finds the span of every character in the word image
+	public static ArrayList<CharacterSpan> findCharacters(BufferedImage wordImage) {
+
+		return findCharacters(getInkProfile(wordImage));
+
+	}
+
+	// method that finds the span of every character from the ink profile of a word
+	public static ArrayList<CharacterSpan> findCharacters(int[] inkProfile) {
+
+		ArrayList<CharacterSpan> characterSpans = new ArrayList<CharacterSpan>();
+
+		// variables to keep track of the previous column and where the current character starts
+		boolean previousWhiteColumn = true;
+		int characterStart = 0;
+
+		for (int i = 0; i < inkProfile.length; i++) {
+
+			// a column with ink belongs to the current character
+			if (inkProfile[i] > 0)
+
+				previousWhiteColumn = false;
+
+			// the first white column after some ink is where the character is cut, it starts the next character
+			else if (!previousWhiteColumn) {
+
+				previousWhiteColumn = true;
+				characterSpans.add(new CharacterSpan(characterStart, i - characterStart));
+				characterStart = i;
+
+			}
+
+		}
+
+		// the last character touches the right side of the image
+		if (!previousWhiteColumn)
+			characterSpans.add(new CharacterSpan(characterStart, inkProfile.length - characterStart));
+
+		return characterSpans;
+
+	}
+
+}
@@ -0,0 +1,469 @@
+package recognition;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+import utils.CustomizationTool;
+
+/*
+ * Template Archive class stores every pattern in a single append only file as its packed glyph, without any jpg in between
+ * Each record holds the letter, the time it was added, the source it came from and the glyph exactly as it is compared
+ * The whole archive is read with one memory mapped pass, so loading thousands of patterns never opens or decodes image files
+ * Learned patterns are appended as a new record at the end of the file, records already written are never changed
+ * Patterns can be imported from the images directory, and the learned ones exported back to it as jpg files named after their letter
+ * The header keeps the fingerprint of the images directory the archive was imported from, so pattern files added or changed
+ * in the directory are imported again, and the learned records after the imported ones are kept
+ *
+ * File layout (little endian):
+ * 	header: magic, version, glyph width, glyph height, dark value, imported record count, directory fingerprint
+ * 	records: letter, source length, word count, time added, source bytes, padding up to a multiple of 8 bytes, glyph words
+ */
+public class TemplateArchive {
+
+	// location of the archive the program learns into
+	public static final String archiveLocation = "images/templates.zta";
+
+	// constants describing the file format
+	private static final int magicNumber = 0x5A595441;
+	private static final int formatVersion = 2;
+	private static final int headerSize = 32;
+
+	// archives of the first version have a shorter header, without the imported record count and the directory fingerprint
+	private static final int firstVersionHeaderSize = 24;
+	private static final int recordHeaderSize = 16;
+
+	// exported pattern files are named after their letter and a number, for example 'a-12.jpg'
+	private static final Pattern sequencePattern = Pattern.compile("([a-z])-(\\d{1,9})\\.jpg");
+
+	// file the records are appended to
+	private final File archiveFile;
+
+	// number of records at the start of the archive imported from the images directory, and the fingerprint of that directory
+	private int importedCount;
+	private long directoryFingerprint;
+
+	// informations about every record in the archive
+	private final ArrayList<Character> letters = new ArrayList<Character>();
+	private final ArrayList<Long> timestamps = new ArrayList<Long>();
+	private final ArrayList<String> sources = new ArrayList<String>();
+	private final ArrayList<GlyphBitmap> glyphs = new ArrayList<GlyphBitmap>();
+
+	// constructor keeps the file the archive is read from and appended to
+	private TemplateArchive(File archiveFile) {
+
+		this.archiveFile = archiveFile;
+
+	}
+
+	// method that reads every record of an archive, creating an empty archive first if the file does not exist
+	public static TemplateArchive open(File archiveFile) throws IOException {
+
+		if (!archiveFile.isFile()) {
+
+			writeHeader(archiveFile, 0, 0);
+			return new TemplateArchive(archiveFile);
+
+		}
+
+		return read(archiveFile, true);
+
+	}
+
+	// method that reads every record of an existing archive into memory instead of mapping it, so the file can be replaced
+	public static TemplateArchive openCopy(File archiveFile) throws IOException {
+
+		return read(archiveFile, false);
+
+	}
+
+	// method that opens the archive of the images directory, importing the directory again first if its pattern files changed
+	// since the archive was imported, the learned records of the old archive are kept after the imported ones
+	public static TemplateArchive openForDirectory(File imageDirectory, File archiveFile) throws IOException {
+
+		if (!archiveFile.isFile())
+			return importDirectory(imageDirectory, archiveFile);
+
+		long currentFingerprint = TemplateIndex.getDirectoryFingerprint(imageDirectory);
+
+		try (FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.READ)) {
+
+			ByteBuffer header = readHeader(channel, archiveFile);
+
+			if (header.limit() == headerSize && header.getLong(24) == currentFingerprint)
+				return read(archiveFile, true);
+
+		}
+
+		System.out.println("images directory changed since the template archive was imported, importing it again");
+
+		// the old archive is read into memory instead of being mapped, so its file can be replaced
+		return importDirectory(imageDirectory, archiveFile, openCopy(archiveFile));
+
+	}
+
+	// method that reads every record of an existing archive, either mapping the file or copying it into memory
+	private static TemplateArchive read(File archiveFile, boolean mapped) throws IOException {
+
+		TemplateArchive archive = new TemplateArchive(archiveFile);
+
+		int dimension = CustomizationTool.selectButtonDimension;
+		int wordCount = GlyphBitmap.getWordCount(dimension, dimension);
+
+		// offset of every complete record, found with plain reads so nothing of the file is mapped while it may be truncated
+		ArrayList<Integer> recordOffsets = new ArrayList<Integer>();
+		long validLength;
+
+		try (FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.READ)) {
+
+			ByteBuffer header = readHeader(channel, archiveFile);
+
+			// archives of the first version only ever started with imported records, recognized by their 'letter/file' source
+			archive.importedCount = header.limit() == headerSize ? header.getInt(20) : -1;
+			archive.directoryFingerprint = header.limit() == headerSize ? header.getLong(24) : 0;
+
+			long fileSize = channel.size();
+			long offset = header.limit();
+			ByteBuffer recordHeader = ByteBuffer.allocate(recordHeaderSize).order(ByteOrder.LITTLE_ENDIAN);
+
+			// read the record headers one after the other, a record cut off by a crash while appending ends the archive
+			while (offset + recordHeaderSize <= fileSize && readFully(channel, recordHeader.clear(), offset)) {
+
+				int sourceLength = recordHeader.getShort(2) & 0xFFFF;
+				int recordWordCount = recordHeader.getInt(4);
+				long recordEnd = align(offset + recordHeaderSize + sourceLength) + recordWordCount * 8L;
+
+				if (recordWordCount != wordCount || recordEnd > fileSize || recordEnd > Integer.MAX_VALUE)
+					break;
+
+				recordOffsets.add((int) offset);
+				offset = recordEnd;
+
+			}
+
+			validLength = offset;
+
+		}
+
+		// cut off an incomplete last record so that the next record is appended right after the last complete one,
+		// before the file is mapped, since a file cannot be truncated on every platform while a mapping of it is open
+		if (validLength < archiveFile.length()) {
+
+			System.out.println("template archive ends with an incomplete record, removing it");
+
+			try (FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.WRITE)) {
+
+				channel.truncate(validLength);
+
+			}
+
+		}
+
+		// only the complete records are mapped, the glyphs stay inside the mapping, or inside the copy if the file is not mapped
+		try (FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.READ)) {
+
+			ByteBuffer buffer;
+
+			if (mapped)
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, validLength).order(ByteOrder.LITTLE_ENDIAN);
+
+			else if (!readFully(channel, buffer = ByteBuffer.allocate((int) validLength).order(ByteOrder.LITTLE_ENDIAN), 0))
+				throw new IOException("template archive changed while it was read: " + archiveFile);
+
+			for (int offset : recordOffsets) {
+
+				char letter = buffer.getChar(offset);
+				int sourceLength = buffer.getShort(offset + 2) & 0xFFFF;
+				long timestamp = buffer.getLong(offset + 8);
+
+				int glyphOffset = (int) align(offset + recordHeaderSize + sourceLength);
+
+				byte[] sourceBytes = new byte[sourceLength];
+				buffer.position(offset + recordHeaderSize);
+				buffer.get(sourceBytes);
+
+				ByteBuffer glyphRegion = buffer.duplicate();
+				glyphRegion.position(glyphOffset);
+				glyphRegion.limit(glyphOffset + wordCount * 8);
+
+				archive.letters.add(letter);
+				archive.timestamps.add(timestamp);
+				archive.sources.add(new String(sourceBytes, StandardCharsets.UTF_8));
+				archive.glyphs.add(new GlyphBitmap(dimension, dimension, glyphRegion.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer()));
+
+			}
+
+		}
+
+		if (archive.importedCount < 0 || archive.importedCount > archive.size()) {
+
+			archive.importedCount = 0;
+
+			while (archive.importedCount < archive.size() && archive.sources.get(archive.importedCount).indexOf('/') >= 0)
+				archive.importedCount++;
+
+		}
+
+		return archive;
+
+	}
+
+	// method that reads the header of an archive and makes sure it was written with the same normalization settings,
+	// the limit of the returned header is its size, which is shorter for archives of the first version
+	private static ByteBuffer readHeader(FileChannel channel, File archiveFile) throws IOException {
+
+		int dimension = CustomizationTool.selectButtonDimension;
+		ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+
+		header.limit(8);
+
+		if (!readFully(channel, header, 0) || header.getInt(0) != magicNumber
+				|| (header.getInt(4) != 1 && header.getInt(4) != formatVersion))
+
+			throw new IOException("template archive has a different format: " + archiveFile);
+
+		header.clear();
+		header.limit(header.getInt(4) == 1 ? firstVersionHeaderSize : headerSize);
+
+		if (!readFully(channel, header, 0) || header.getInt(8) != dimension || header.getInt(12) != dimension
+				|| header.getInt(16) != CustomizationTool.darkValue)
+
+			throw new IOException("template archive has a different format: " + archiveFile);
+
+		return header;
+
+	}
+
+	// method that fills a cleared buffer up to its limit with the bytes of the channel at the given position,
+	// returns false if the file ends first
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+
+		while (buffer.hasRemaining())
+			if (channel.read(buffer, position + buffer.position()) < 0)
+
+				return false;
+
+		buffer.flip();
+
+		return true;
+
+	}
+
+	// method that creates a new archive holding every pattern of the images directory, replacing the archive file
+	public static TemplateArchive importDirectory(File imageDirectory, File archiveFile) throws IOException {
+
+		return importDirectory(imageDirectory, archiveFile, null);
+
+	}
+
+	// method that creates a new archive holding every pattern of the images directory, followed by the learned records
+	// of the previous archive if there is one
+	private static TemplateArchive importDirectory(File imageDirectory, File archiveFile, TemplateArchive previousArchive)
+			throws IOException {
+
+		// the template index already decodes and normalizes every pattern file, and skips the files that did not change
+		TemplateIndex templateIndex = TemplateIndex.open(imageDirectory,
+				new File(imageDirectory, new File(TemplateIndex.indexLocation).getName()));
+
+		File temporaryFile = new File(archiveFile.getPath() + ".tmp");
+		writeHeader(temporaryFile, templateIndex.size(), templateIndex.getFingerprint());
+
+		try (FileChannel channel = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+
+			for (int i = 0; i < templateIndex.size(); i++)
+
+				writeRecord(channel, templateIndex.getLetter(i), templateIndex.getLastModified(i),
+						templateIndex.getLetter(i) + "/" + templateIndex.getFileName(i), templateIndex.getGlyph(i));
+
+			if (previousArchive != null)
+				for (int i = previousArchive.importedCount; i < previousArchive.size(); i++)
+
+					writeRecord(channel, previousArchive.getLetter(i), previousArchive.getTimestamp(i), previousArchive.getSource(i),
+							previousArchive.getGlyph(i));
+
+		}
+
+		Files.move(temporaryFile.toPath(), archiveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		return open(archiveFile);
+
+	}
+
+	// method that writes every learned pattern of the archive as a jpg file into the directory of its letter, returns the number
+	// written, the imported patterns already are pattern files of the images directory and are never written again
+	public int exportDirectory(File imageDirectory) throws IOException {
+
+		// next free number of every letter, found once from the files already in the directory
+		int[] nextSequences = new int[26];
+
+		for (int i = 0; i < 26; i++) {
+
+			String[] fileNames = new File(imageDirectory, String.valueOf((char) (97 + i))).list();
+
+			if (fileNames == null)
+				continue;
+
+			for (String fileName : fileNames) {
+
+				Matcher matcher = sequencePattern.matcher(fileName);
+
+				if (matcher.matches() && matcher.group(1).charAt(0) == (char) (97 + i))
+					nextSequences[i] = Math.max(nextSequences[i], Integer.parseInt(matcher.group(2)) + 1);
+
+			}
+
+		}
+
+		int exportedCount = 0;
+
+		for (int i = importedCount; i < size(); i++) {
+
+			char letter = getLetter(i);
+
+			if (letter < 'a' || letter > 'z')
+				continue;
+
+			File letterDirectory = new File(imageDirectory, String.valueOf(letter));
+
+			if (!letterDirectory.isDirectory() && !letterDirectory.mkdirs())
+				throw new IOException("directory could not be created: " + letterDirectory);
+
+			File patternFile = new File(letterDirectory, letter + "-" + nextSequences[letter - 'a']++ + ".jpg");
+
+			if (!ImageIO.write(getGlyph(i).toImage(), "jpg", patternFile))
+				throw new IOException("no jpg writer found for " + patternFile);
+
+			exportedCount++;
+
+		}
+
+		return exportedCount;
+
+	}
+
+	// method that appends a pattern to the end of the archive file and to the records in memory
+	public synchronized void append(char letter, long timestamp, String source, GlyphBitmap glyph) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+
+			writeRecord(channel, letter, timestamp, source, glyph);
+
+		}
+
+		letters.add(letter);
+		timestamps.add(timestamp);
+		sources.add(source);
+		glyphs.add(glyph);
+
+	}
+
+	// method that writes the header of an empty archive
+	private static void writeHeader(File archiveFile, int importedCount, long directoryFingerprint) throws IOException {
+
+		ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+
+		header.putInt(magicNumber);
+		header.putInt(formatVersion);
+		header.putInt(CustomizationTool.selectButtonDimension);
+		header.putInt(CustomizationTool.selectButtonDimension);
+		header.putInt(CustomizationTool.darkValue);
+		header.putInt(importedCount);
+		header.putLong(directoryFingerprint);
+		header.flip();
+
+		try (FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			while (header.hasRemaining())
+				channel.write(header);
+
+		}
+
+	}
+
+	// method that writes one record with a single write at the end of the channel
+	private static void writeRecord(FileChannel channel, char letter, long timestamp, String source, GlyphBitmap glyph)
+			throws IOException {
+
+		byte[] sourceBytes = source.getBytes(StandardCharsets.UTF_8);
+
+		if (sourceBytes.length > 0xFFFF)
+			throw new IOException("source name is too long: " + source);
+
+		LongBuffer words = glyph.getWords();
+		int wordCount = glyph.getWordCount();
+
+		// records always start at a multiple of 8 bytes, so the glyph words after the source are aligned as well
+		int glyphOffset = (int) align(recordHeaderSize + sourceBytes.length);
+		ByteBuffer record = ByteBuffer.allocate(glyphOffset + wordCount * 8).order(ByteOrder.LITTLE_ENDIAN);
+
+		record.putChar(letter);
+		record.putShort((short) sourceBytes.length);
+		record.putInt(wordCount);
+		record.putLong(timestamp);
+		record.put(sourceBytes);
+		record.position(glyphOffset);
+
+		for (int i = 0; i < wordCount; i++)
+			record.putLong(words.get(i));
+
+		record.flip();
+
+		while (record.hasRemaining())
+			channel.write(record);
+
+	}
+
+	// method that rounds an offset up to the next multiple of 8 bytes
+	private static long align(long offset) {
+
+		return (offset + 7) & ~7;
+
+	}
+
+	// method that returns the number of patterns in the archive
+	public synchronized int size() {
+
+		return glyphs.size();
+
+	}
+
+	// getters
+	public synchronized char getLetter(int index) {
+		return letters.get(index);
+	}
+
+	public synchronized long getTimestamp(int index) {
+		return timestamps.get(index);
+	}
+
+	public synchronized String getSource(int index) {
+		return sources.get(index);
+	}
+
+	public synchronized GlyphBitmap getGlyph(int index) {
+		return glyphs.get(index);
+	}
+
+	public int getImportedCount() {
+		return importedCount;
+	}
+
+	public long getDirectoryFingerprint() {
+		return directoryFingerprint;
+	}
+
+}
@@ -0,0 +1,368 @@
+package recognition;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+import utils.CustomizationTool;
+
+/*
+ * Template Cache class keeps every pattern stored in the images directory in memory
+ * Patterns are read from the packed template archive, or from the compiled template index of the jpg files if the archive is
+ * turned off, so each one is normalized only once and reused across launches
+ * Patterns are stored in a hash map with the character 'a' to 'z' as key so every conversion can reuse them
+ * Learned patterns are appended to the archive, or saved with the next number of their letter and added to the index,
+ * and added to the hash map right away, so the very next conversion uses them without listing the directory again
+ * Every character of a learned word is added together, so the index is written once per word
+ * With prototype compaction, the matchers get the prototypes of each letter instead of every pattern,
+ * and learned patterns are added to the prototype set of their letter without clustering the whole letter again
+ * With metric tree matching, the patterns of each letter are also kept in a glyph tree that learned patterns are inserted into
+ * Every change of the patterns empties the result cache
+ */
+public class TemplateCache {
+
+	// hash map that stores the ready to compare patterns of each character
+	private static final HashMap<Character, ArrayList<GlyphBitmap>> templates = new HashMap<Character, ArrayList<GlyphBitmap>>();
+
+	// hash map that stores the resolution pyramid of each pattern, built the first time coarse to fine matching needs them
+	private static final HashMap<Character, ArrayList<GlyphPyramid>> pyramids = new HashMap<Character, ArrayList<GlyphPyramid>>();
+
+	// prototype set of each character, built the first time prototype compaction needs them
+	private static final HashMap<Character, PrototypeSet> prototypeSets = new HashMap<Character, PrototypeSet>();
+
+	// true if the pyramids in the hash map were built from the prototypes instead of every pattern
+	private static boolean pyramidsFromPrototypes;
+
+	// level sizes the pyramids in the hash map were built with, a copy so a change made inside the settings array is seen too
+	private static int[] pyramidsLevelSizes = new int[0];
+
+	// glyph tree of each character, built the first time metric tree matching needs them
+	private static final HashMap<Character, GlyphTree> trees = new HashMap<Character, GlyphTree>();
+
+	// true if the trees in the hash map were built from the prototypes instead of every pattern
+	private static boolean treesFromPrototypes;
+
+	// template archive the patterns were read from, null if they were read from the template index
+	private static TemplateArchive templateArchive;
+
+	// template index the patterns were read from, null if they were read from the template archive
+	private static TemplateIndex templateIndex;
+
+	// pattern file names are the letter, a dash and a number, for example 'a-12.jpg'
+	private static final Pattern sequencePattern = Pattern.compile("([a-z])-(\\d{1,9})\\.jpg");
+
+	// method that returns the patterns of a character to compare with, opening the template store the first time
+	public static synchronized ArrayList<GlyphBitmap> getTemplates(char character) {
+
+		if (templates.isEmpty())
+			loadAllTemplates();
+
+		ArrayList<GlyphBitmap> characterTemplates = templates.get(character);
+
+		if (characterTemplates == null)
+			return new ArrayList<GlyphBitmap>();
+
+		if (!CustomizationTool.prototypeCompaction)
+			return characterTemplates;
+
+		// the letter is clustered again only if the number of prototypes was changed
+		PrototypeSet prototypeSet = prototypeSets.get(character);
+
+		if (prototypeSet == null || prototypeSet.getMaxPrototypes() != Math.max(1, CustomizationTool.prototypesPerLetter)) {
+
+			prototypeSet = new PrototypeSet(characterTemplates, CustomizationTool.prototypesPerLetter);
+			prototypeSets.put(character, prototypeSet);
+
+		}
+
+		return prototypeSet.getPrototypes();
+
+	}
+
+	// method that returns the resolution pyramids of the patterns of a character
+	public static synchronized ArrayList<GlyphPyramid> getPyramids(char character) {
+
+		// pyramids built before prototype compaction was turned on or off, or before the level sizes were changed, are built again,
+		// the pyramid of the input is always built with the current level sizes
+		if (pyramidsFromPrototypes != CustomizationTool.prototypeCompaction
+				|| !Arrays.equals(pyramidsLevelSizes, CustomizationTool.pyramidLevelSizes)) {
+
+			pyramids.clear();
+			pyramidsFromPrototypes = CustomizationTool.prototypeCompaction;
+			pyramidsLevelSizes = CustomizationTool.pyramidLevelSizes.clone();
+
+		}
+
+		ArrayList<GlyphPyramid> characterPyramids = pyramids.get(character);
+
+		if (characterPyramids == null) {
+
+			characterPyramids = new ArrayList<GlyphPyramid>();
+
+			for (GlyphBitmap template : getTemplates(character))
+				characterPyramids.add(GlyphPyramid.build(template));
+
+			pyramids.put(character, characterPyramids);
+
+		}
+
+		return characterPyramids;
+
+	}
+
+	// method that returns the glyph tree holding the patterns of a character
+	public static synchronized GlyphTree getTree(char character) {
+
+		// trees built before prototype compaction was turned on or off are built again
+		if (treesFromPrototypes != CustomizationTool.prototypeCompaction) {
+
+			trees.clear();
+			treesFromPrototypes = CustomizationTool.prototypeCompaction;
+
+		}
+
+		GlyphTree characterTree = trees.get(character);
+
+		if (characterTree == null) {
+
+			characterTree = new GlyphTree(getTemplates(character));
+			trees.put(character, characterTree);
+
+		}
+
+		return characterTree;
+
+	}
+
+	// method that loads the patterns of all 26 characters so that later conversions never touch the directory
+	public static synchronized void loadAllTemplates() {
+
+		templates.clear();
+		pyramids.clear();
+		prototypeSets.clear();
+		trees.clear();
+		ResultCache.clear();
+
+		for (int i = 0; i < 26; i++)
+			templates.put((char) (97 + i), new ArrayList<GlyphBitmap>());
+
+		templateArchive = null;
+		templateIndex = null;
+
+		if (CustomizationTool.templateArchive) {
+
+			try {
+
+				// the archive is filled with the patterns of the images directory the first time, and again whenever
+				// pattern files are added to or changed in the directory
+				templateArchive = TemplateArchive.openForDirectory(new File("images"), new File(TemplateArchive.archiveLocation));
+
+				// the glyphs stay inside the memory mapped archive file, only the references are kept in the map
+				for (int i = 0; i < templateArchive.size(); i++)
+					if (templates.containsKey(templateArchive.getLetter(i)))
+
+						templates.get(templateArchive.getLetter(i)).add(templateArchive.getGlyph(i));
+
+				return;
+
+			} catch (IOException error) {
+
+				System.out.println("template archive could not be opened, reading the images directory: " + error.getMessage());
+				templateArchive = null;
+
+				for (int i = 0; i < 26; i++)
+					templates.get((char) (97 + i)).clear();
+
+			}
+
+		}
+
+		// the glyphs stay inside the memory mapped index file, only the references are kept in the map
+		templateIndex = TemplateIndex.open(new File("images"), new File(TemplateIndex.indexLocation));
+
+		for (int i = 0; i < templateIndex.size(); i++)
+			templates.get(templateIndex.getLetter(i)).add(templateIndex.getGlyph(i));
+
+	}
+
+	// method that saves the characters of a learned word as patterns of their letters and adds them to the patterns in memory,
+	// characters other than 'a' to 'z' are skipped, returns the number of patterns added
+	public static synchronized int addTemplates(String word, ArrayList<BufferedImage> characterImages, String source)
+			throws IOException {
+
+		if (templates.isEmpty())
+			loadAllTemplates();
+
+		ArrayList<Character> addedLetters = new ArrayList<Character>();
+		ArrayList<GlyphBitmap> addedGlyphs = new ArrayList<GlyphBitmap>();
+		ArrayList<File> patternFiles = new ArrayList<File>();
+
+		// the characters saved before a failure are still added, the failure is thrown once they are
+		IOException saveError = null;
+
+		for (int i = 0; i < Math.min(word.length(), characterImages.size()); i++) {
+
+			char character = word.charAt(i);
+
+			if (character < 'a' || character > 'z')
+				continue;
+
+			// the pattern is normalized the same way a pattern file is normalized when it is imported
+			GlyphBitmap glyph = GlyphBitmap.fromImage(CustomizationTool.normalizeCharacter(characterImages.get(i)));
+
+			try {
+
+				if (templateArchive != null)
+					templateArchive.append(character, System.currentTimeMillis(), source, glyph);
+
+				else {
+
+					File patternFile = new File("images/" + character + "/" + character + "-" + getNextSequence(character) + ".jpg");
+
+					if (!ImageIO.write(characterImages.get(i), "jpg", patternFile))
+						throw new IOException("no jpg writer found for " + patternFile);
+
+					patternFiles.add(patternFile);
+
+				}
+
+			} catch (IOException error) {
+
+				saveError = error;
+				break;
+
+			}
+
+			addedLetters.add(character);
+			addedGlyphs.add(glyph);
+
+		}
+
+		if (!addedLetters.isEmpty()) {
+
+			if (templateArchive != null) {
+
+				// the lists are replaced instead of changed so that conversions reading the old lists are never affected
+				for (int i = 0; i < addedLetters.size(); i++) {
+
+					ArrayList<GlyphBitmap> characterTemplates = new ArrayList<GlyphBitmap>(templates.get(addedLetters.get(i)));
+					characterTemplates.add(addedGlyphs.get(i));
+					templates.put(addedLetters.get(i), characterTemplates);
+
+				}
+
+			} else {
+
+				templateIndex = templateIndex.add(addedLetters, patternFiles, addedGlyphs, new File(TemplateIndex.indexLocation));
+
+				// the glyphs now live in the new index, so the lists are filled again from it
+				for (int i = 0; i < 26; i++)
+					templates.put((char) (97 + i), new ArrayList<GlyphBitmap>());
+
+				for (int i = 0; i < templateIndex.size(); i++)
+					templates.get(templateIndex.getLetter(i)).add(templateIndex.getGlyph(i));
+
+			}
+
+			for (int i = 0; i < addedLetters.size(); i++) {
+
+				pyramids.remove(addedLetters.get(i));
+				addToIndexes(addedLetters.get(i), addedGlyphs.get(i));
+
+			}
+
+		}
+
+		if (saveError != null)
+			throw saveError;
+
+		return addedLetters.size();
+
+	}
+
+	// method that adds a learned pattern to the prototype set and the glyph tree of its character, if they are built,
+	// and forgets the cached results that were matched without it
+	private static void addToIndexes(char character, GlyphBitmap glyph) {
+
+		ResultCache.clear();
+
+		if (prototypeSets.containsKey(character))
+			prototypeSets.get(character).add(glyph);
+
+		// a tree of prototypes is built again because the new pattern may have changed the prototypes
+		if (CustomizationTool.prototypeCompaction)
+			trees.remove(character);
+		else if (trees.containsKey(character))
+			trees.get(character).insert(glyph);
+
+	}
+
+	// method that returns the number after the highest pattern number of a character, found from the index entries
+	private static int getNextSequence(char character) {
+
+		int highestSequence = -1;
+
+		for (int i = 0; i < templateIndex.size(); i++) {
+
+			Matcher matcher = sequencePattern.matcher(templateIndex.getFileName(i));
+
+			if (templateIndex.getLetter(i) == character && matcher.matches() && matcher.group(1).charAt(0) == character)
+				highestSequence = Math.max(highestSequence, Integer.parseInt(matcher.group(2)));
+
+		}
+
+		File patternFile = new File("images/" + character + "/" + character + "-" + (highestSequence + 1) + ".jpg");
+
+		// a file that could not be indexed, for example an unreadable image, still holds its number
+		while (patternFile.exists())
+			patternFile = new File("images/" + character + "/" + character + "-" + (++highestSequence + 1) + ".jpg");
+
+		return highestSequence + 1;
+
+	}
+
+	// method that replaces the patterns of every character in memory, used to benchmark stores of different sizes
+	public static synchronized void replaceTemplates(HashMap<Character, ArrayList<GlyphBitmap>> replacementTemplates) {
+
+		templates.clear();
+		pyramids.clear();
+		prototypeSets.clear();
+		trees.clear();
+		ResultCache.clear();
+
+		for (int i = 0; i < 26; i++) {
+
+			ArrayList<GlyphBitmap> characterTemplates = replacementTemplates.get((char) (97 + i));
+			templates.put((char) (97 + i), characterTemplates == null ? new ArrayList<GlyphBitmap>() : characterTemplates);
+
+		}
+
+	}
+
+	// method that marks the patterns of every letter as outdated so that the changed directory is indexed again before
+	// the next conversion, the patterns are loaded all together so no single letter can be loaded again on its own
+	public static synchronized void invalidate() {
+
+		clear();
+
+	}
+
+	// method that removes all the patterns stored in memory
+	public static synchronized void clear() {
+
+		templates.clear();
+		pyramids.clear();
+		prototypeSets.clear();
+		trees.clear();
+		ResultCache.clear();
+
+	}
+
+}
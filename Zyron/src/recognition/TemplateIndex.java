@@ -0,0 +1,557 @@
+package recognition;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+import utils.CustomizationTool;
+
+/*
+ * Template Index class compiles every pattern of the images directory into a single binary file
+ * The file stores the letter, file name, size and modified time of every pattern followed by its packed glyph
+ * The file is opened with FileChannel.map so the glyphs are read straight from the mapped buffer outside the heap
+ * A fingerprint of the directory listing is kept in the header and the file is only rebuilt when the directory changes
+ * When rebuilding, patterns whose file did not change are copied from the old index instead of being decoded again
+ * Patterns learned while the program runs are added to the index from memory, without listing or decoding the directory
+ * A file that is mapped cannot be replaced on every platform, so every save writes a new generation of the index file,
+ * named after the index file and a number, and the older generations are deleted once nothing maps them anymore
+ *
+ * File layout (little endian):
+ * 	header: magic, version, glyph width, glyph height, dark value, template count, directory fingerprint
+ * 	entries: letter, last modified, file length, file name length, file name bytes
+ * 	padding up to a multiple of 8 bytes followed by the packed words of every glyph in entry order
+ */
+public class TemplateIndex {
+
+	// location of the compiled index file
+	public static final String indexLocation = "images/templates.idx";
+
+	// generation files are named after the index file followed by their number, for example 'templates.idx.3'
+	private static final Pattern generationPattern = Pattern.compile("\\.(\\d{1,18})");
+
+	// constants describing the file format
+	private static final int magicNumber = 0x5A595449;
+	private static final int formatVersion = 1;
+	private static final int headerSize = 32;
+
+	// informations about every template stored in the index
+	private final char[] letters;
+	private final String[] fileNames;
+	private final long[] lastModified;
+	private final long[] fileLengths;
+	private final GlyphBitmap[] glyphs;
+
+	// fingerprint of the directory listing the index was built from
+	private final long fingerprint;
+
+	// constructor reads the entries of an index stored in the buffer and wraps every glyph without copying it
+	private TemplateIndex(ByteBuffer buffer) {
+
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		int width = buffer.getInt(8);
+		int height = buffer.getInt(12);
+		int count = buffer.getInt(20);
+		fingerprint = buffer.getLong(24);
+
+		letters = new char[count];
+		fileNames = new String[count];
+		lastModified = new long[count];
+		fileLengths = new long[count];
+		glyphs = new GlyphBitmap[count];
+
+		// read the entry table
+		ByteBuffer entryTable = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		entryTable.position(headerSize);
+
+		for (int i = 0; i < count; i++) {
+
+			letters[i] = entryTable.getChar();
+			lastModified[i] = entryTable.getLong();
+			fileLengths[i] = entryTable.getLong();
+
+			byte[] nameBytes = new byte[entryTable.getShort()];
+			entryTable.get(nameBytes);
+			fileNames[i] = new String(nameBytes, StandardCharsets.UTF_8);
+
+		}
+
+		// every glyph is a view of its own region of the buffer
+		int wordCount = GlyphBitmap.getWordCount(width, height);
+		int glyphOffset = align(entryTable.position());
+
+		for (int i = 0; i < count; i++) {
+
+			ByteBuffer glyphRegion = buffer.duplicate();
+			glyphRegion.position(glyphOffset + i * wordCount * 8);
+			glyphRegion.limit(glyphOffset + (i + 1) * wordCount * 8);
+
+			glyphs[i] = new GlyphBitmap(width, height, glyphRegion.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+
+		}
+
+	}
+
+	// method that opens the index of the image directory, rebuilding the index file first if the directory changed
+	public static TemplateIndex open(File imageDirectory, File indexFile) {
+
+		ArrayList<File> patternFiles = listPatternFiles(imageDirectory);
+		long currentFingerprint = getFingerprint(patternFiles);
+
+		TemplateIndex previousIndex = null;
+		File currentFile = getCurrentFile(indexFile);
+
+		// try to reuse the newest generation of the index that is already compiled
+		if (currentFile != null) {
+
+			try {
+
+				previousIndex = new TemplateIndex(map(currentFile));
+
+				if (previousIndex.fingerprint == currentFingerprint)
+					return previousIndex;
+
+			} catch (IOException | RuntimeException error) {
+
+				System.out.println("template index is invalid, rebuilding it");
+				previousIndex = null;
+
+			}
+
+		}
+
+		return save(compile(patternFiles, currentFingerprint, previousIndex), indexFile);
+
+	}
+
+	// method that returns a new index with patterns added to the entries of this one, and saves it once as the next generation
+	// of the index file, so the patterns learned from a whole word cost a single write
+	public TemplateIndex add(ArrayList<Character> newLetters, ArrayList<File> newPatternFiles, ArrayList<GlyphBitmap> newGlyphs,
+			File indexFile) {
+
+		int count = size() + newGlyphs.size();
+
+		char[] addedLetters = Arrays.copyOf(letters, count);
+		String[] addedFileNames = Arrays.copyOf(fileNames, count);
+		long[] addedLastModified = Arrays.copyOf(lastModified, count);
+		long[] addedFileLengths = Arrays.copyOf(fileLengths, count);
+		GlyphBitmap[] addedGlyphs = Arrays.copyOf(glyphs, count);
+
+		for (int i = size(); i < count; i++) {
+
+			addedLetters[i] = newLetters.get(i - size());
+			addedFileNames[i] = newPatternFiles.get(i - size()).getName();
+			addedLastModified[i] = newPatternFiles.get(i - size()).lastModified();
+			addedFileLengths[i] = newPatternFiles.get(i - size()).length();
+			addedGlyphs[i] = newGlyphs.get(i - size());
+
+		}
+
+		// keep the entries in the order the directory is listed, so the fingerprint matches the directory on the next launch
+		Integer[] order = new Integer[count];
+
+		for (int i = 0; i < count; i++)
+			order[i] = i;
+
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer index1, Integer index2) {
+
+				if (addedLetters[index1] != addedLetters[index2])
+					return Character.compare(addedLetters[index1], addedLetters[index2]);
+
+				return addedFileNames[index1].compareTo(addedFileNames[index2]);
+
+			}
+		});
+
+		char[] sortedLetters = new char[count];
+		String[] sortedFileNames = new String[count];
+		long[] sortedLastModified = new long[count];
+		long[] sortedFileLengths = new long[count];
+		GlyphBitmap[] sortedGlyphs = new GlyphBitmap[count];
+
+		for (int i = 0; i < count; i++) {
+
+			sortedLetters[i] = addedLetters[order[i]];
+			sortedFileNames[i] = addedFileNames[order[i]];
+			sortedLastModified[i] = addedLastModified[order[i]];
+			sortedFileLengths[i] = addedFileLengths[order[i]];
+			sortedGlyphs[i] = addedGlyphs[order[i]];
+
+		}
+
+		long addedFingerprint = getFingerprint(sortedLetters, sortedFileNames, sortedFileLengths, sortedLastModified);
+
+		return save(write(sortedLetters, sortedFileNames, sortedLastModified, sortedFileLengths, sortedGlyphs, addedFingerprint),
+				indexFile);
+
+	}
+
+	// method that writes a compiled index as the next generation of the index file and maps it, or keeps it in the heap if it
+	// cannot be saved, the generation mapped so far is never overwritten
+	private static TemplateIndex save(ByteBuffer compiledIndex, File indexFile) {
+
+		// write the index to a temporary file first so a crash never leaves a broken index behind
+		try {
+
+			File currentFile = getCurrentFile(indexFile);
+			long generation = currentFile == null ? 1 : getGeneration(currentFile, indexFile) + 1;
+
+			File generationFile = new File(indexFile.getPath() + "." + generation);
+			File temporaryFile = new File(indexFile.getPath() + ".tmp");
+
+			try (FileChannel channel = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+				while (compiledIndex.hasRemaining())
+					channel.write(compiledIndex);
+
+			}
+
+			// no index maps a generation newer than the current one, so nothing mapped is ever replaced
+			Files.move(temporaryFile.toPath(), generationFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+			TemplateIndex savedIndex = new TemplateIndex(map(generationFile));
+			deleteOlderGenerations(indexFile, generation);
+
+			return savedIndex;
+
+		} catch (IOException error) {
+
+			// if the index cannot be saved, the templates are kept in the heap for this run
+			System.out.println("template index could not be saved");
+			compiledIndex.rewind();
+
+			return new TemplateIndex(compiledIndex);
+
+		}
+
+	}
+
+	// method that returns the newest generation of the index file, or null if the index was never saved
+	private static File getCurrentFile(File indexFile) {
+
+		File currentFile = null;
+		File[] files = indexFile.getAbsoluteFile().getParentFile().listFiles();
+
+		if (files == null)
+			return null;
+
+		for (File file : files)
+			if (getGeneration(file, indexFile) >= 0
+					&& (currentFile == null || getGeneration(file, indexFile) > getGeneration(currentFile, indexFile)))
+
+				currentFile = file;
+
+		return currentFile;
+
+	}
+
+	// method that returns the generation number of a file of the index, the index file itself written by older versions
+	// counts as generation 0, and -1 is returned for any other file
+	private static long getGeneration(File file, File indexFile) {
+
+		if (!file.isFile() || !file.getName().startsWith(indexFile.getName()))
+			return -1;
+
+		if (file.getName().equals(indexFile.getName()))
+			return 0;
+
+		Matcher matcher = generationPattern.matcher(file.getName().substring(indexFile.getName().length()));
+
+		return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+
+	}
+
+	// method that deletes every generation older than the given one, a generation still mapped on a platform that does not
+	// allow it is left behind and deleted by a later save
+	private static void deleteOlderGenerations(File indexFile, long generation) {
+
+		File[] files = indexFile.getAbsoluteFile().getParentFile().listFiles();
+
+		if (files == null)
+			return;
+
+		for (File file : files)
+			if (getGeneration(file, indexFile) >= 0 && getGeneration(file, indexFile) < generation)
+
+				file.delete();
+
+	}
+
+	// method that maps an index file into memory as a read only buffer
+	private static ByteBuffer map(File indexFile) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+
+			// make sure the file was written with the same format and normalization settings
+			if (buffer.getInt(0) != magicNumber || buffer.getInt(4) != formatVersion
+					|| buffer.getInt(8) != CustomizationTool.selectButtonDimension
+					|| buffer.getInt(12) != CustomizationTool.selectButtonDimension
+					|| buffer.getInt(16) != CustomizationTool.darkValue)
+
+				throw new IOException("template index has a different format");
+
+			return buffer;
+
+		}
+
+	}
+
+	// method that decodes and normalizes every pattern file and writes the whole index into a buffer
+	private static ByteBuffer compile(ArrayList<File> patternFiles, long fingerprint, TemplateIndex previousIndex) {
+
+		// patterns of the previous index that can be reused are found by their letter and file name
+		HashMap<String, Integer> previousEntries = new HashMap<String, Integer>();
+
+		if (previousIndex != null)
+			for (int i = 0; i < previousIndex.size(); i++)
+				previousEntries.put(previousIndex.letters[i] + "/" + previousIndex.fileNames[i], i);
+
+		ArrayList<GlyphBitmap> compiledGlyphs = new ArrayList<GlyphBitmap>();
+		ArrayList<File> compiledFiles = new ArrayList<File>();
+
+		for (File file : patternFiles) {
+
+			char letter = file.getParentFile().getName().charAt(0);
+			Integer previousEntry = previousEntries.get(letter + "/" + file.getName());
+			GlyphBitmap glyph = null;
+
+			// reuse the pattern if the file is unchanged, otherwise decode and normalize it
+			if (previousEntry != null && previousIndex.lastModified[previousEntry] == file.lastModified()
+					&& previousIndex.fileLengths[previousEntry] == file.length()) {
+
+				glyph = previousIndex.glyphs[previousEntry];
+
+			} else {
+
+				try {
+
+					BufferedImage loadedImage = ImageIO.read(file);
+					glyph = GlyphBitmap.fromImage(CustomizationTool.normalizeCharacter(loadedImage));
+
+				} catch (IOException error) {
+
+					System.out.println("error in loading in buffered image");
+
+				}
+
+			}
+
+			if (glyph != null) {
+
+				compiledGlyphs.add(glyph);
+				compiledFiles.add(file);
+
+			}
+
+		}
+
+		int count = compiledFiles.size();
+
+		char[] compiledLetters = new char[count];
+		String[] compiledFileNames = new String[count];
+		long[] compiledLastModified = new long[count];
+		long[] compiledFileLengths = new long[count];
+
+		for (int i = 0; i < count; i++) {
+
+			compiledLetters[i] = compiledFiles.get(i).getParentFile().getName().charAt(0);
+			compiledFileNames[i] = compiledFiles.get(i).getName();
+			compiledLastModified[i] = compiledFiles.get(i).lastModified();
+			compiledFileLengths[i] = compiledFiles.get(i).length();
+
+		}
+
+		return write(compiledLetters, compiledFileNames, compiledLastModified, compiledFileLengths,
+				compiledGlyphs.toArray(new GlyphBitmap[0]), fingerprint);
+
+	}
+
+	// method that writes the header, the entries and the packed glyphs of an index into a buffer
+	private static ByteBuffer write(char[] letters, String[] fileNames, long[] lastModified, long[] fileLengths, GlyphBitmap[] glyphs,
+			long fingerprint) {
+
+		int dimension = CustomizationTool.selectButtonDimension;
+		int wordCount = GlyphBitmap.getWordCount(dimension, dimension);
+		int entryTableSize = 0;
+
+		for (String fileName : fileNames)
+			entryTableSize += 20 + fileName.getBytes(StandardCharsets.UTF_8).length;
+
+		int glyphOffset = align(headerSize + entryTableSize);
+		ByteBuffer buffer = ByteBuffer.allocate(glyphOffset + glyphs.length * wordCount * 8).order(ByteOrder.LITTLE_ENDIAN);
+
+		// header
+		buffer.putInt(magicNumber);
+		buffer.putInt(formatVersion);
+		buffer.putInt(dimension);
+		buffer.putInt(dimension);
+		buffer.putInt(CustomizationTool.darkValue);
+		buffer.putInt(glyphs.length);
+		buffer.putLong(fingerprint);
+
+		// entry table
+		for (int i = 0; i < glyphs.length; i++) {
+
+			byte[] nameBytes = fileNames[i].getBytes(StandardCharsets.UTF_8);
+
+			buffer.putChar(letters[i]);
+			buffer.putLong(lastModified[i]);
+			buffer.putLong(fileLengths[i]);
+			buffer.putShort((short) nameBytes.length);
+			buffer.put(nameBytes);
+
+		}
+
+		// packed glyphs
+		buffer.position(glyphOffset);
+
+		for (GlyphBitmap glyph : glyphs) {
+
+			LongBuffer words = glyph.getWords();
+
+			for (int i = 0; i < wordCount; i++)
+				buffer.putLong(words.get(i));
+
+		}
+
+		buffer.flip();
+
+		return buffer;
+
+	}
+
+	// method that returns the fingerprint of the pattern files of the image directory, without compiling anything
+	public static long getDirectoryFingerprint(File imageDirectory) {
+
+		return getFingerprint(listPatternFiles(imageDirectory));
+
+	}
+
+	// method that lists every pattern file from 'a' to 'z' in a fixed order
+	private static ArrayList<File> listPatternFiles(File imageDirectory) {
+
+		ArrayList<File> patternFiles = new ArrayList<File>();
+
+		for (int i = 0; i < 26; i++) {
+
+			File patternDirectory = new File(imageDirectory, String.valueOf((char) (97 + i)));
+
+			if (patternDirectory.isDirectory()) {
+
+				File[] files = patternDirectory.listFiles(CustomizationTool.imageFilter);
+				Arrays.sort(files);
+
+				patternFiles.addAll(Arrays.asList(files));
+
+			}
+
+		}
+
+		return patternFiles;
+
+	}
+
+	// method that hashes the name, size and modified time of every pattern file
+	private static long getFingerprint(ArrayList<File> patternFiles) {
+
+		int count = patternFiles.size();
+
+		char[] letters = new char[count];
+		String[] fileNames = new String[count];
+		long[] fileLengths = new long[count];
+		long[] lastModified = new long[count];
+
+		for (int i = 0; i < count; i++) {
+
+			letters[i] = patternFiles.get(i).getParentFile().getName().charAt(0);
+			fileNames[i] = patternFiles.get(i).getName();
+			fileLengths[i] = patternFiles.get(i).length();
+			lastModified[i] = patternFiles.get(i).lastModified();
+
+		}
+
+		return getFingerprint(letters, fileNames, fileLengths, lastModified);
+
+	}
+
+	// method that hashes the letter, name, size and modified time of every pattern, in the order they are listed
+	private static long getFingerprint(char[] letters, String[] fileNames, long[] fileLengths, long[] lastModified) {
+
+		try {
+
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+			for (int i = 0; i < letters.length; i++)
+
+				digest.update((letters[i] + "/" + fileNames[i] + ":" + fileLengths[i] + ":" + lastModified[i] + "\n")
+						.getBytes(StandardCharsets.UTF_8));
+
+			return ByteBuffer.wrap(digest.digest()).getLong();
+
+		} catch (NoSuchAlgorithmException error) {
+
+			// every java platform is required to support SHA-256
+			throw new IllegalStateException(error);
+
+		}
+
+	}
+
+	// method that rounds an offset up to the next multiple of 8 bytes
+	private static int align(int offset) {
+
+		return (offset + 7) & ~7;
+
+	}
+
+	// method that returns the number of templates in the index
+	public int size() {
+
+		return glyphs.length;
+
+	}
+
+	// getters
+	public char getLetter(int index) {
+		return letters[index];
+	}
+
+	public String getFileName(int index) {
+		return fileNames[index];
+	}
+
+	public long getLastModified(int index) {
+		return lastModified[index];
+	}
+
+	public GlyphBitmap getGlyph(int index) {
+		return glyphs[index];
+	}
+
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+}
@@ -0,0 +1,297 @@
+package recognition;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import utils.CustomizationTool;
+
+/*
+ * Warm Up Service class prepares the recognition on background threads while the first screen is showing
+ * The patterns of every letter and the dictionary are loaded at the same time on two threads, then a drawn word saved
+ * as a temporary file is recognized a few times so the decoding, segmentation, matching and ranking loops are compiled before the first conversion
+ * The drawn word never goes through the result cache, so the cache and its counters only ever hold real inputs
+ * Progress can be read at any time or followed with a listener, and a conversion started early simply waits for the patterns
+ */
+public class WarmUpService {
+
+	// word drawn and recognized to warm up the matching loops
+	private static final String warmUpWord = "zyron";
+
+	// threads of the warm up, null until it is started
+	private static ExecutorService executor;
+
+	// number of steps done out of the number of steps, what is being done, and a latch opened once everything is done
+	private static volatile int completedSteps;
+	private static volatile int stepCount = 1;
+	private static volatile String stage = "not started";
+	private static final CountDownLatch finishedLatch = new CountDownLatch(1);
+
+	// listeners told about every step, called on the warm up threads
+	private static final CopyOnWriteArrayList<WarmUpListener> listeners = new CopyOnWriteArrayList<WarmUpListener>();
+
+	// method that starts the warm up on background threads and returns right away, only the first call starts it
+	public static synchronized void start() {
+
+		if (executor != null)
+			return;
+
+		stepCount = 2 + Math.max(0, CustomizationTool.warmUpRounds);
+		setStage("loading patterns and dictionary");
+
+		// the threads are daemons with a low priority, so they never keep the program open or slow down the screens
+		executor = Executors.newFixedThreadPool(2, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+
+				Thread thread = new Thread(runnable, "warm-up");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+
+				return thread;
+
+			}
+		});
+
+		final Future<?> templateTask = executor.submit(new Runnable() {
+			@Override
+			public void run() {
+
+				loadTemplates();
+				completeStep("patterns loaded");
+
+			}
+		});
+
+		final Future<?> dictionaryTask = executor.submit(new Runnable() {
+			@Override
+			public void run() {
+
+				Dictionary.load();
+				completeStep("dictionary loaded");
+
+			}
+		});
+
+		// the recognition is warmed up once both the patterns and the dictionary are in memory
+		executor.submit(new Runnable() {
+			@Override
+			public void run() {
+
+				try {
+
+					templateTask.get();
+					dictionaryTask.get();
+
+					warmUpRecognition();
+					finish("ready");
+
+				} catch (InterruptedException error) {
+
+					Thread.currentThread().interrupt();
+					finish("interrupted");
+
+				} catch (ExecutionException error) {
+
+					System.out.println("warm up failed: " + error.getCause());
+					finish("failed");
+
+				} catch (IOException | RuntimeException error) {
+
+					System.out.println("warm up failed: " + error);
+					finish("failed");
+
+				}
+
+			}
+		});
+
+		executor.shutdown();
+
+	}
+
+	// method that loads the patterns of every letter, with the pyramids or glyph trees the matching settings use
+	private static void loadTemplates() {
+
+		for (int i = 0; i < 26; i++) {
+
+			char character = (char) (97 + i);
+
+			TemplateCache.getTemplates(character);
+
+			if (CustomizationTool.coarseToFineMatching)
+				TemplateCache.getPyramids(character);
+
+			if (CustomizationTool.metricTreeMatching)
+				TemplateCache.getTree(character);
+
+		}
+
+	}
+
+	// method that recognizes the drawn word the number of warm up rounds, the same way a file is recognized but without the cache
+	private static void warmUpRecognition() throws IOException {
+
+		// the drawing is saved as a temporary jpg file, so it is decoded by the same image decoder as a file the user selects
+		File wordFile = File.createTempFile("zyron-warm-up", ".jpg");
+
+		try {
+
+			ImageIO.write(drawWord(warmUpWord), "jpg", wordFile);
+
+			for (int round = 0; round < CustomizationTool.warmUpRounds; round++)
+				recognizeWord(wordFile, round);
+
+		} finally {
+
+			wordFile.delete();
+
+		}
+
+	}
+
+	// method that recognizes the word of a file like Recognizer.recognize does, matching every character without the result cache
+	private static void recognizeWord(File wordFile, int round) throws IOException {
+
+		BufferedImage decodedImage = Recognizer.readImage(wordFile);
+
+		ArrayList<GlyphBitmap> inputPixels = new ArrayList<GlyphBitmap>();
+
+		for (BufferedImage characterImage : Recognizer.normalizeWord(decodedImage))
+			inputPixels.add(GlyphBitmap.fromImage(characterImage));
+
+		// the characters are matched the way the current settings match them
+		ArrayList<HashMap<Character, Double>> characterHierarchy = Recognizer.createHierarchy(inputPixels.size());
+
+		if (CustomizationTool.parallelRecognition && !CustomizationTool.coarseToFineMatching && !CustomizationTool.metricTreeMatching)
+			ParallelMatcher.fillMaps(characterHierarchy, inputPixels, CustomizationTool.recognitionParallelism);
+
+		else for (int i = 0; i < characterHierarchy.size(); i++)
+
+			characterHierarchy.set(i, Recognizer.fillMap(characterHierarchy.get(i), inputPixels.get(i)));
+
+		Recognizer.getTopChoices(characterHierarchy, Recognizer.defaultTopChoiceCount);
+
+		completeStep("recognition warmed up " + (round + 1) + "/" + CustomizationTool.warmUpRounds);
+
+	}
+
+	// method that draws a word in black on a white image, the way a word is drawn in the input files
+	private static BufferedImage drawWord(String word) {
+
+		BufferedImage wordImage = new BufferedImage(3 * CustomizationTool.selectButtonDimension / 2,
+				CustomizationTool.selectButtonDimension / 2, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2d = wordImage.createGraphics();
+
+		g2d.setColor(Color.WHITE);
+		g2d.fillRect(0, 0, wordImage.getWidth(), wordImage.getHeight());
+		g2d.setColor(Color.BLACK);
+		g2d.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, wordImage.getHeight() / 2));
+		g2d.drawString(word, wordImage.getHeight() / 4, 2 * wordImage.getHeight() / 3);
+		g2d.dispose();
+
+		return wordImage;
+
+	}
+
+	// method that counts a step as done and tells the listeners
+	private static void completeStep(String stepStage) {
+
+		synchronized (WarmUpService.class) {
+
+			completedSteps++;
+
+		}
+
+		setStage(stepStage);
+
+	}
+
+	// method that marks the warm up as done, even if it stopped before its last step
+	private static void finish(String finalStage) {
+
+		synchronized (WarmUpService.class) {
+
+			completedSteps = stepCount;
+
+		}
+
+		// the latch is opened first, so listeners told about the final stage see the warm up as finished
+		stage = finalStage;
+		finishedLatch.countDown();
+		setStage(finalStage);
+
+	}
+
+	// method that changes what is being done and tells the listeners
+	private static void setStage(String newStage) {
+
+		stage = newStage;
+
+		for (WarmUpListener listener : listeners)
+			listener.warmUpProgressed(newStage, getProgress());
+
+	}
+
+	// method that waits until the warm up is done or the time is up, returns true if it is done
+	public static boolean awaitFinished(long timeoutMillis) throws InterruptedException {
+
+		return finishedLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+
+	}
+
+	// method that adds a listener told about every step from now on
+	public static void addListener(WarmUpListener listener) {
+
+		listeners.add(listener);
+
+	}
+
+	public static void removeListener(WarmUpListener listener) {
+
+		listeners.remove(listener);
+
+	}
+
+	// method that returns the percentage of the warm up done, from 0 to 100
+	public static int getProgress() {
+
+		return (int) Math.round(100.0 * completedSteps / stepCount);
+
+	}
+
+	// getters
+	public static String getStage() {
+		return stage;
+	}
+
+	public static boolean isFinished() {
+		return finishedLatch.getCount() == 0;
+	}
+
+	/*
+	 * Warm Up Listener interface is told what the warm up is doing after every step, on the warm up threads
+	 */
+	public interface WarmUpListener {
+
+		// method called with what is being done and the percentage done, 100 once the warm up is finished
+		void warmUpProgressed(String stage, int percentage);
+
+	}
+
+}
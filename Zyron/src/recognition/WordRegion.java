@@ -0,0 +1,65 @@
+package recognition;
+
+import java.awt.image.BufferedImage;
+
+/*
+ * Word Region class stores where a word is inside a page image, with the line it belongs to and its place on that line
+ * No pixels are copied, the word image is a sub image that shares the raster of the page image
+ */
+public class WordRegion {
+
+	// line of the page and word of the line, both counted from 0 in reading order
+	private final int lineIndex;
+	private final int wordIndex;
+
+	// bounds of the word inside the page image
+	private final int x;
+	private final int y;
+	private final int width;
+	private final int height;
+
+	// constructor taking in the place of the word in reading order and its bounds
+	public WordRegion(int lineIndex, int wordIndex, int x, int y, int width, int height) {
+
+		this.lineIndex = lineIndex;
+		this.wordIndex = wordIndex;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+
+	}
+
+	// method that returns the word as a view of the page image
+	public BufferedImage getImage(BufferedImage pageImage) {
+
+		return pageImage.getSubimage(x, y, width, height);
+
+	}
+
+	// getters
+	public int getLineIndex() {
+		return lineIndex;
+	}
+
+	public int getWordIndex() {
+		return wordIndex;
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+}
@@ -0,0 +1,241 @@
+package recognition;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.PriorityQueue;
+
+/*
+ * Word Trie class stores every dictionary word of one length in a prefix tree
+ * The best words are found with a best-first search: the prefix with the highest possible total is always expanded first
+ * The highest possible total of a prefix is its points plus the best letter points of every remaining position,
+ * so a branch is never expanded once that total cannot beat the worst of the best words already found
+ * The search returns exactly the same words as scoring every word of the same length
+ */
+public class WordTrie {
+
+	// length of every word stored in this trie
+	private final int wordLength;
+
+	// first node of the trie, it stands for the empty prefix
+	private final Node root = new Node();
+
+	// number of words stored
+	private int size;
+
+	// constructor creates an empty trie for words of the given length
+	public WordTrie(int wordLength) {
+
+		this.wordLength = wordLength;
+
+	}
+
+	// method that adds a word with its position in the dictionary, words of a different length are ignored
+	public synchronized void insert(String word, int position) {
+
+		if (word.length() != wordLength)
+			return;
+
+		Node currentNode = root;
+		currentNode.minPosition = Math.min(currentNode.minPosition, position);
+
+		for (int i = 0; i < wordLength; i++) {
+
+			currentNode = currentNode.getOrCreateChild(word.charAt(i));
+			currentNode.minPosition = Math.min(currentNode.minPosition, position);
+
+		}
+
+		if (currentNode.word == null) {
+
+			currentNode.word = word;
+			currentNode.position = position;
+			size++;
+
+		}
+
+	}
+
+	// method that returns the best words for the letter points of every position, sorted in descending order of points
+	public synchronized LinkedHashMap<String, Double> search(double[][] letterPoints, int topChoiceCount) {
+
+		LinkedHashMap<String, Double> topChoices = new LinkedHashMap<String, Double>();
+
+		if (topChoiceCount <= 0 || size == 0)
+			return topChoices;
+
+		// best points that can still be added from each position to the end of the word
+		double[] remainingPoints = new double[wordLength + 1];
+
+		for (int i = wordLength - 1; i >= 0; i--) {
+
+			double bestLetterPoints = 0;
+
+			for (double points : letterPoints[i])
+				bestLetterPoints = Math.max(bestLetterPoints, points);
+
+			remainingPoints[i] = remainingPoints[i + 1] + bestLetterPoints;
+
+		}
+
+		// prefixes waiting to be expanded, the one with the highest possible total first
+		PriorityQueue<Prefix> frontier = new PriorityQueue<Prefix>();
+		frontier.add(new Prefix(root, 0, 0, remainingPoints[0]));
+
+		// min heap of the best words found so far, the worst of them is always at the top
+		PriorityQueue<Dictionary.ScoredWord> bestWords = new PriorityQueue<Dictionary.ScoredWord>(topChoiceCount + 1);
+
+		while (!frontier.isEmpty()) {
+
+			Prefix prefix = frontier.poll();
+
+			// every prefix left has a lower possible total, so none of them can enter the best words
+			if (bestWords.size() == topChoiceCount && !canBeat(prefix.bound, prefix.node.minPosition, bestWords.peek()))
+				break;
+
+			// a complete word, its points are exact so it only replaces the worst of the best words if it ranks above it
+			if (prefix.depth == wordLength) {
+
+				Dictionary.ScoredWord scoredWord = new Dictionary.ScoredWord(prefix.node.word, prefix.points, prefix.node.position);
+
+				if (bestWords.size() < topChoiceCount) {
+
+					bestWords.add(scoredWord);
+
+				} else if (scoredWord.compareTo(bestWords.peek()) > 0) {
+
+					bestWords.poll();
+					bestWords.add(scoredWord);
+
+				}
+
+				continue;
+
+			}
+
+			// expand the letters of the next position that can still beat the worst of the best words
+			for (int i = 0; i < prefix.node.children.length; i++)
+				if (prefix.node.children[i] != null)
+
+					expand(frontier, bestWords, topChoiceCount, prefix, prefix.node.children[i], letterPoints[prefix.depth][i],
+							remainingPoints);
+
+			if (prefix.node.otherChildren != null)
+				for (Node child : prefix.node.otherChildren.values())
+
+					expand(frontier, bestWords, topChoiceCount, prefix, child, 0, remainingPoints);
+
+		}
+
+		// empty the heap from the worst word to the best one and reverse it
+		Dictionary.ScoredWord[] sortedWords = new Dictionary.ScoredWord[bestWords.size()];
+
+		for (int i = sortedWords.length - 1; i >= 0; i--)
+			sortedWords[i] = bestWords.poll();
+
+		for (Dictionary.ScoredWord scoredWord : sortedWords)
+			topChoices.put(scoredWord.word, scoredWord.points);
+
+		return topChoices;
+
+	}
+
+	// method that adds a child prefix to the frontier if it can still beat the worst of the best words
+	private void expand(PriorityQueue<Prefix> frontier, PriorityQueue<Dictionary.ScoredWord> bestWords, int topChoiceCount,
+			Prefix prefix, Node child, double letterPoints, double[] remainingPoints) {
+
+		double points = prefix.points + letterPoints;
+		double bound = points + remainingPoints[prefix.depth + 1];
+
+		if (bestWords.size() < topChoiceCount || canBeat(bound, child.minPosition, bestWords.peek()))
+			frontier.add(new Prefix(child, prefix.depth + 1, points, bound));
+
+	}
+
+	// method that returns true if a word with the given points and position would rank above the scored word
+	private static boolean canBeat(double bound, int minPosition, Dictionary.ScoredWord worstWord) {
+
+		// a small margin makes sure rounding in the sum of the points never prunes a word that ties
+		return bound + 1e-9 > worstWord.points || (bound + 1e-9 >= worstWord.points && minPosition < worstWord.position);
+
+	}
+
+	// method that returns the number of words stored
+	public synchronized int size() {
+
+		return size;
+
+	}
+
+	// node of the trie, children from 'a' to 'z' are stored in an array and any other character in a hash map
+	private static class Node {
+
+		private final Node[] children = new Node[26];
+		private HashMap<Character, Node> otherChildren;
+
+		// smallest dictionary position of the words below this node, used to rank words with the same points
+		private int minPosition = Integer.MAX_VALUE;
+
+		// word and position stored at the last node of a word
+		private String word;
+		private int position;
+
+		private Node getOrCreateChild(char character) {
+
+			if (character >= 'a' && character <= 'z') {
+
+				if (children[character - 'a'] == null)
+					children[character - 'a'] = new Node();
+
+				return children[character - 'a'];
+
+			}
+
+			if (otherChildren == null)
+				otherChildren = new HashMap<Character, Node>();
+
+			Node child = otherChildren.get(character);
+
+			if (child == null) {
+
+				child = new Node();
+				otherChildren.put(character, child);
+
+			}
+
+			return child;
+
+		}
+
+	}
+
+	// prefix waiting in the frontier with its points so far and the highest total it can reach
+	private static class Prefix implements Comparable<Prefix> {
+
+		private final Node node;
+		private final int depth;
+		private final double points;
+		private final double bound;
+
+		private Prefix(Node node, int depth, double points, double bound) {
+
+			this.node = node;
+			this.depth = depth;
+			this.points = points;
+			this.bound = bound;
+
+		}
+
+		// the prefix with the highest total comes first, then the one holding the earliest dictionary word
+		@Override
+		public int compareTo(Prefix other) {
+
+			if (bound != other.bound)
+				return Double.compare(other.bound, bound);
+
+			return Integer.compare(node.minPosition, other.node.minPosition);
+
+		}
+
+	}
+
+}
@@ -1,47 +1,202 @@
 package utils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
 
 /*
  * Author: Alan Sun
- * 
+ *
  * the audio player class plays a sound effect from a file
+ * Every effect is read and decoded into PCM samples only once, then opened in a small pool of clips that are reused forever
+ * All the work happens on a single audio thread, so playing an effect returns right away and never blocks the caller
+ * When every clip of an effect is still playing, the one started first is played again from the start instead of opening a new line
  */
 public class AudioPlayer {
 
-	// Variable for the music, stored as a clip
-	static Clip clip;
-	static AudioInputStream audioInput;
+	// number of clips opened for each effect, the number of times an effect can overlap itself
+	private static final int clipsPerEffect = 4;
+
+	// thread reading, opening and starting every clip, a daemon so it never keeps the program open
+	private static final ExecutorService audioThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable, "audio-player");
+			thread.setDaemon(true);
+
+			return thread;
+
+		}
+	});
+
+	// pool of every effect loaded, only used on the audio thread, null for an effect that could not be loaded
+	private static final HashMap<String, ClipPool> effects = new HashMap<String, ClipPool>();
+
+	// Method that plays a sound effect, takes in the location of the effect and returns without waiting for it
+	public static void playAudio(final String audioLocation) {
+
+		audioThread.execute(new Runnable() {
+			@Override
+			public void run() {
+
+				ClipPool clipPool = getClipPool(audioLocation);
+
+				if (clipPool != null)
+					clipPool.play();
+
+			}
+		});
+
+	}
+
+	// method that loads effects ahead of time, so that the first time they are played is as fast as any other time
+	public static void preload(final String... audioLocations) {
+
+		audioThread.execute(new Runnable() {
+			@Override
+			public void run() {
+
+				for (String audioLocation : audioLocations)
+					getClipPool(audioLocation);
 
-	// Methods that create/play the music, takes in the location of the music
-	public static void playAudio(String audioLocation) {
+			}
+		});
 
-		// if music location is found, play it. else catch it and print it is not found
+	}
+
+	// method that returns the pool of an effect, loading it the first time, or null if it cannot be played
+	private static ClipPool getClipPool(String audioLocation) {
+
+		if (effects.containsKey(audioLocation))
+			return effects.get(audioLocation);
+
+		ClipPool clipPool = null;
+
+		// if the effect is found, decode it and open its clips. else print it is not found, only once
 		try {
 
-			// Make a file that stores the location of the music
-			File Sound = new File(audioLocation);
+			clipPool = new ClipPool(new File(audioLocation));
+
+		} catch (IOException | UnsupportedAudioFileException error) {
+
+			System.out.println("music file is not found");
+
+		} catch (LineUnavailableException | IllegalArgumentException | SecurityException error) {
+
+			System.out.println("no audio line available for " + audioLocation);
+
+		}
+
+		effects.put(audioLocation, clipPool);
+
+		return clipPool;
+
+	}
 
-			// allow AudioInputStream to store the sound file
-			audioInput = AudioSystem.getAudioInputStream(Sound);
+	/*
+	 * Clip Pool class holds the decoded samples of an effect and the clips they were opened in
+	 */
+	private static class ClipPool {
 
-			// the actual audio clip is received from the AudioInputStream
-			clip = AudioSystem.getClip();
+		private final ArrayList<Clip> clips = new ArrayList<Clip>();
 
-			// load the audio using clip
-			clip.open(audioInput);
+		// index of the clip started longest ago
+		private int nextClip;
 
-			// start the audio
+		// constructor decodes the effect into PCM samples once and opens every clip of the pool with them
+		private ClipPool(File audioFile) throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+
+			AudioFormat format;
+			byte[] samples;
+
+			try (AudioInputStream audioInput = AudioSystem.getAudioInputStream(audioFile)) {
+
+				format = audioInput.getFormat();
+				InputStream sampleInput = audioInput;
+
+				// compressed effects are converted to plain 16 bit samples that every clip can play
+				if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED && format.getEncoding() != AudioFormat.Encoding.PCM_UNSIGNED) {
+
+					format = new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+					sampleInput = AudioSystem.getAudioInputStream(format, audioInput);
+
+				}
+
+				samples = readAll(sampleInput);
+
+			}
+
+			try {
+
+				for (int i = 0; i < clipsPerEffect; i++) {
+
+					Clip clip = AudioSystem.getClip();
+					clips.add(clip);
+					clip.open(format, samples, 0, samples.length - samples.length % format.getFrameSize());
+
+				}
+
+			} catch (LineUnavailableException | RuntimeException error) {
+
+				for (Clip clip : clips)
+					clip.close();
+
+				throw error;
+
+			}
+
+		}
+
+		// method that plays the effect from the start with a clip that is not playing, or the one started longest ago
+		private void play() {
+
+			Clip clip = clips.get(nextClip);
+
+			for (int i = 0; i < clips.size(); i++) {
+
+				if (!clips.get((nextClip + i) % clips.size()).isRunning()) {
+
+					clip = clips.get((nextClip + i) % clips.size());
+					nextClip = (nextClip + i) % clips.size();
+					break;
+
+				}
+
+			}
+
+			nextClip = (nextClip + 1) % clips.size();
+
+			clip.stop();
+			clip.setFramePosition(0);
 			clip.start();
 
-		} catch (Exception ex) {
+		}
+
+		// method that reads every byte left in a stream
+		private static byte[] readAll(InputStream input) throws IOException {
 
-			// if music file is not found, print it
-			System.out.println("music file is not found");
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int readCount;
+
+			while ((readCount = input.read(buffer)) > 0)
+				output.write(buffer, 0, readCount);
+
+			return output.toByteArray();
 
 		}
 
@@ -8,6 +8,7 @@ import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
@@ -21,8 +22,9 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
-import display.HelpScreen;
-import display.IntroScreen;
+import display.ApplicationFrame;
+import recognition.CharacterSpan;
+import recognition.Segmenter;
 
 /*
  * Author: Alan Sun
@@ -48,9 +50,67 @@ public class CustomizationTool {
 	// minimal color value to be considered dark
 	public static int darkValue = 50;
 
+	// recognition control variables, characters are matched on a fork/join pool with the given number of threads
+	public static boolean parallelRecognition = true;
+	public static int recognitionParallelism = Integer.getInteger("zyron.parallelism", Runtime.getRuntime().availableProcessors());
+
+	// dictionary words are searched in a word trie instead of scoring every word of the same length
+	public static boolean trieWordSearch = true;
+
+	// coarse to fine matching compares characters at the pyramid level sizes first and rejects templates that
+	// are more than the tolerance (in percent) below the best one, only the contenders are compared at full size
+	public static boolean coarseToFineMatching = false;
+	public static int[] pyramidLevelSizes = new int[] {25, 50, 100};
+	public static double coarseToFineTolerance = 3.0;
+
+	// patterns are loaded from and learned into the packed template archive instead of the jpg files of the images directory,
+	// the archive is imported from the images directory the first time it is needed
+	public static boolean templateArchive = true;
+
+	// prototype compaction clusters the patterns of each letter with k-medoids and only compares the characters
+	// with the medoid of every cluster, so the matching cost is bounded by the number of prototypes per letter
+	public static boolean prototypeCompaction = false;
+	public static int prototypesPerLetter = 8;
+
+	// metric tree matching finds the best template of each letter with a BK-tree instead of comparing every template
+	public static boolean metricTreeMatching = false;
+
+	// input images larger than needed are decoded subsampled and cut to the region with ink, keeping at least the decode
+	// target on the shorter side of the region (twice the character size, characters are narrower than the word)
+	// and never decoding more pixels than the budget
+	public static boolean subsampledDecoding = true;
+	public static int decodeTargetSize = 2 * selectButtonDimension;
+	public static int decodePixelBudget = 16000000;
+
+	// the percentages matched of every image file and every character are cached, keyed by a hash of their content,
+	// perceptual keys let near identical characters share a result, and the caches are emptied whenever the patterns change
+	public static boolean resultCaching = true;
+	public static boolean perceptualResultKeys = false;
+	public static int imageResultCacheSize = 256;
+	public static int characterResultCacheSize = 4096;
+
+	// in document mode, a white gap of a line is a space between two words if it is wider than this ratio of the line height
+	public static double wordGapRatio = 0.6;
+
+	// the patterns and the dictionary are loaded while the intro screen is showing, and a drawn word is recognized
+	// the number of warm up rounds so the first conversion runs as fast as the later ones
+	public static boolean backgroundWarmUp = true;
+	public static int warmUpRounds = 5;
+
 	// available extensions to load from
 	public static final String[] validExtensions = new String[] {"jpg"};
 
+	// sample buffer of each thread used when reading a row of a byte image
+	private static final ThreadLocal<int[]> rowSamples = new ThreadLocal<int[]>() {
+
+		@Override
+		protected int[] initialValue() {
+
+			return new int[0];
+
+		}
+	};
+
 	// method that sets up a frame
 	public static void frameSetUp(JFrame frame) {
 
@@ -68,16 +128,13 @@ public class CustomizationTool {
 
 	}
 
-	// method that sets up a panel
-	public static void panelSetUp(JFrame frame, JPanel panel) {
+	// method that sets up the panel of a screen
+	public static void panelSetUp(JPanel panel) {
 
 		// disable auto layout, set background color and set the size and location
 		panel.setLayout(null);
 		panel.setBackground(Color.black);
 		panel.setBounds(0, 0, CustomizationTool.programWidth, CustomizationTool.programHeight);
-		
-		// add the panel to the frame
-		frame.add(panel);
 
 	}
 
@@ -127,42 +184,38 @@ public class CustomizationTool {
 		int endX = 0;
 		int endY = 0;
 
-		// initial conditions
-		boolean startXFound = false;
-		boolean startYFound = false;
-		boolean endXFound = false;
-		boolean endYFound = false;
-
-		// loop though every pixel of the image
-		for (int i = 0; i < inputImage.getHeight(); i++) {
-			for (int j = 0; j < inputImage.getWidth(); j++) {
-
-				// loop through a row or column and get the RGB color or that pixel
-				Color topPixel = new Color(inputImage.getRGB(j, i));
-				Color leftPixel = new Color(inputImage.getRGB(i, j));
-				Color bottomPixel = new Color(inputImage.getRGB(j, inputImage.getHeight() - 1 - i));
-				Color rightPixel = new Color(inputImage.getRGB(inputImage.getWidth() - 1 - i, j));
-
-				// if any of the pixels found are dark enough, then crop start/end a that row/column
-				if (topPixel.getBlue() < darkValue && topPixel.getGreen() < darkValue && topPixel.getRed() < darkValue && !startYFound) {
-					startY = i;
-					startYFound = true;
-				}
-				if (leftPixel.getBlue() < darkValue && leftPixel.getGreen() < darkValue && leftPixel.getRed() < darkValue && !startXFound) {
-					startX = i;
-					startXFound = true;
-				}
-				if (bottomPixel.getBlue() < darkValue && bottomPixel.getGreen() < darkValue && bottomPixel.getRed() < darkValue
-						&& !endYFound) {
-					endY = inputImage.getHeight() - i;
-					endYFound = true;
-				}
-				if (rightPixel.getBlue() < darkValue && rightPixel.getGreen() < darkValue && rightPixel.getRed() < darkValue && !endXFound) {
-					endX = inputImage.getWidth() - i;
-					endXFound = true;
+		// initial condition
+		boolean darkPixelFound = false;
+
+		int[] rowPixels = new int[inputImage.getWidth()];
+
+		// loop though every row of the image and find the first and last row and column with a dark pixel
+		for (int y = 0; y < inputImage.getHeight(); y++) {
+
+			getRowRGB(inputImage, y, rowPixels);
+
+			for (int x = 0; x < rowPixels.length; x++) {
+
+				// if the pixel is dark enough, then the crop has to include its row and column
+				if (isDark(rowPixels[x])) {
+
+					if (!darkPixelFound) {
+
+						startX = x;
+						startY = y;
+						endX = x + 1;
+						darkPixelFound = true;
+
+					}
+
+					startX = Math.min(startX, x);
+					endX = Math.max(endX, x + 1);
+					endY = y + 1;
+
 				}
 
 			}
+
 		}
 
 		// return a cropped image or the parent image
@@ -170,28 +223,30 @@ public class CustomizationTool {
 
 	}
 
+	// method that resizes a character image, crops it so the text touches all 4 sides and scales it back to a square
+	public static BufferedImage normalizeCharacter(BufferedImage characterImage) {
+
+		return resize(cropToFit(resize(characterImage, selectButtonDimension, selectButtonDimension)), 
+				selectButtonDimension, selectButtonDimension);
+
+	}
+
 	// method that converts a scaled image to a 2D boolean array
 	public static boolean[][] to2DBoolean(BufferedImage inputIcon) {
 
 		boolean[][] inputPixels = new boolean[inputIcon.getWidth()][inputIcon.getHeight()];
 
-		// loop though the buffered image and get the color at each pixel
-		for (int i = 0; i < inputIcon.getWidth(); i++) {
-			for (int j = 0; j < inputIcon.getWidth(); j++) {
+		int[] rowPixels = new int[inputIcon.getWidth()];
 
-				Color colorPixel = new Color(inputIcon.getRGB(i, j));
+		// loop though the buffered image a row at a time and test the color at each pixel
+		for (int j = 0; j < inputIcon.getHeight(); j++) {
 
-				// if pixel is not transparent and darker than the accepted value, then set index as true in the 2D array
-				if (colorPixel.getBlue() < darkValue && colorPixel.getGreen() < darkValue && colorPixel.getRed() < darkValue 
-						&& colorPixel.getAlpha() != 0)
+			getRowRGB(inputIcon, j, rowPixels);
 
-					inputPixels[i][j] = true;
-			
-				else
+			// if pixel is darker than the accepted value, then set index as true in the 2D array
+			for (int i = 0; i < rowPixels.length; i++)
 
-					inputPixels[i][j] = false;
-
-			}
+				inputPixels[i][j] = isDark(rowPixels[i]);
 
 		}
 
@@ -199,72 +254,101 @@ public class CustomizationTool {
 
 	}
 
-	// method that saves a buffered image to a directory
-	public static void exportFile(BufferedImage outputImage, String directory) {
-		
-		//load a file from the directory in the directory and see if it exist
-		File outputFile = new File(directory);
+	// method that returns true if all 3 colors of a packed RGB pixel are below the dark value
+	public static boolean isDark(int rgb) {
 
-		try {
+		return ((rgb >> 16) & 0xff) < darkValue && ((rgb >> 8) & 0xff) < darkValue && (rgb & 0xff) < darkValue;
 
-			// if the directory exist, save the output image as a jpg
-			ImageIO.write(outputImage, "jpg", outputFile);
+	}
 
-		} catch (IOException error) {
+	// method that returns true if all 3 colors of a packed RGB pixel are above the dark value
+	public static boolean isWhite(int rgb) {
 
-			System.out.println("no directory found with given name");
-
-		}
+		return ((rgb >> 16) & 0xff) > darkValue && ((rgb >> 8) & 0xff) > darkValue && (rgb & 0xff) > darkValue;
 
 	}
 
-	// method that loads a word and detect where to crop it into characters
-	public static ArrayList<BufferedImage> loadWord(BufferedImage wordImage) {
+	// method that reads a row of pixels as packed RGB values into the row buffer without creating an object per pixel
+	public static void getRowRGB(BufferedImage image, int y, int[] rowPixels) {
 
-		ArrayList<BufferedImage> wordList = new ArrayList<BufferedImage>();
+		int width = image.getWidth();
+		WritableRaster raster = image.getRaster();
 
-		// variables to keep track of pixel count of current and previous column
-		boolean previousWhiteColumn = true;
-		int whitePixelCount = 0;
+		switch (image.getType()) {
 
-		// traverse through the buffered image by pixels and find out the color
-		for (int i = 0; i < wordImage.getWidth(); i++) {
-			for (int j = 0; j < wordImage.getHeight(); j++) {
+		// the data elements of these types already are packed RGB values
+		case BufferedImage.TYPE_INT_RGB:
+		case BufferedImage.TYPE_INT_ARGB:
 
-				Color colorPixel = new Color(wordImage.getRGB(i, j));
+			raster.getDataElements(0, y, width, 1, rowPixels);
+			break;
 
-				// if pixel is transparent or not dark enough, it is considered as a white pixel
-				if ((colorPixel.getBlue() > darkValue && colorPixel.getGreen() > darkValue && colorPixel.getRed() > darkValue)
-						|| colorPixel.getAlpha() == 0) {
+		// the samples of these types are read as red, green and blue bands
+		case BufferedImage.TYPE_3BYTE_BGR:
+		case BufferedImage.TYPE_4BYTE_ABGR:
 
-					whitePixelCount++;
+			// images with an embedded color profile are left to their color model
+			if (!image.getColorModel().getColorSpace().isCS_sRGB()) {
 
-				}
+				image.getRGB(0, y, width, 1, rowPixels, 0, width);
+				break;
 
-				else {
+			}
 
-					// if the pixel is dark enough, then this column is no longer considered white
-					previousWhiteColumn = false;
-					break;
+			int bands = raster.getNumBands();
+			int[] samples = rowSamples.get();
 
-				}
+			if (samples.length < width * bands) {
+
+				samples = new int[width * bands];
+				rowSamples.set(samples);
 
 			}
 
-			// if the entire column is white, it is where to crop a character out
-			if (whitePixelCount == wordImage.getHeight() && !previousWhiteColumn) {
+			raster.getPixels(0, y, width, 1, samples);
 
-				previousWhiteColumn = true;
-				wordList.add(wordImage.getSubimage(0, 0, i, wordImage.getHeight()));
-				wordImage = wordImage.getSubimage(i, 0, wordImage.getWidth() - i, wordImage.getHeight());
-				i = 0;
+			for (int x = 0, i = 0; x < width; x++, i += bands)
+				rowPixels[x] = (samples[i] << 16) | (samples[i + 1] << 8) | samples[i + 2];
 
-			}
+			break;
 
-			whitePixelCount = 0;
+		// every other type is converted to RGB by its color model
+		default:
+
+			image.getRGB(0, y, width, 1, rowPixels, 0, width);
 
 		}
 
+	}
+
+	// method that saves a buffered image to a directory
+	public static void exportFile(BufferedImage outputImage, String directory) {
+		
+		//load a file from the directory in the directory and see if it exist
+		File outputFile = new File(directory);
+
+		try {
+
+			// if the directory exist, save the output image as a jpg
+			ImageIO.write(outputImage, "jpg", outputFile);
+
+		} catch (IOException error) {
+
+			System.out.println("no directory found with given name");
+
+		}
+
+	}
+
+	// method that loads a word and detect where to crop it into characters
+	public static ArrayList<BufferedImage> loadWord(BufferedImage wordImage) {
+
+		ArrayList<BufferedImage> wordList = new ArrayList<BufferedImage>();
+
+		// every character is a view of the word image, found in a single pass over its pixels
+		for (CharacterSpan characterSpan : Segmenter.findCharacters(wordImage))
+			wordList.add(characterSpan.getImage(wordImage));
+
 		return wordList;
 
 	}
@@ -295,9 +379,8 @@ public class CustomizationTool {
 
 				MusicPlayer.stopMusic();
 
-				// opens a new intro screen and closes this frame
-				new IntroScreen();
-				frame.dispose();
+				// shows the intro screen in the frame in place of the current screen
+				ApplicationFrame.showIntroScreen();
 
 			}
 		});
@@ -337,7 +420,7 @@ public class CustomizationTool {
 			@Override
 			public void actionPerformed(ActionEvent e) {
 
-				new HelpScreen();
+				ApplicationFrame.showHelpScreen();
 
 			}
 
@@ -359,6 +442,7 @@ public class CustomizationTool {
 
 				// stops the music from playing
 				MusicPlayer.stopMusic();
+				musicPlaying = false;
 
 			}
 
@@ -374,10 +458,7 @@ public class CustomizationTool {
 			@Override
 			public void actionPerformed(ActionEvent e) {
 
-				// stops the music, if there are any
-				if (musicPlaying)
-					MusicPlayer.stopMusic();
-
+				// the music player stops the music playing before, if there is any
 				playBackgroundMusic();
 
 				musicPlaying = true;
@@ -437,8 +518,8 @@ public class CustomizationTool {
 
 		Toolkit toolkit = Toolkit.getDefaultToolkit();
 
-		// load an image using ToolKit
-		Image mouse = toolkit.getImage("utility/cursor.png");
+		// the cursor picture is shared with the other screens through the icon cache
+		Image mouse = IconCache.getIcon("utility/cursor.png").getImage();
 
 		// set the cursor icon giving a new image, point, and name
 		frame.setCursor(toolkit.createCustomCursor(mouse, new Point(0, 0), "Custom Cursor"));
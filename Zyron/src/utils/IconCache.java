@@ -0,0 +1,207 @@
+package utils;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/*
+ * Icon Cache class decodes and scales every picture of the screens once and hands out the same icon to every screen
+ * Pictures are decoded with ImageIO and scaled into a new image right away, so drawing an icon never scales it again
+ * Animated pictures keep every frame, they are loaded and scaled by the toolkit instead
+ * Every picture the screens use can be loaded on a few background threads at startup, a screen asking for an icon that
+ * is still being loaded waits for it, and an icon nobody loaded yet is loaded by the screen asking for it
+ * Icons are shared between screens and must never be changed
+ */
+public class IconCache {
+
+	// pictures of the screens with the number their size is divided by, loaded by preload
+	private static final String[] thirdSizeIcons = new String[] {"begin", "help", "exit", "convert", "input", "loadingIcon", "back",
+			"correct", "guess", "neither", "next", "submit", "write", "save", "dispose", "export"};
+	private static final String[] halfSizeIcons = new String[] {"heading"};
+	private static final String[] fullSizeIcons = new String[] {"logo", "help0", "help1", "help2", "help3", "help4", "help5", "cursor"};
+
+	// icon of every picture and size asked for so far, the task finishes when the icon is loaded
+	private static final ConcurrentHashMap<String, FutureTask<ImageIcon>> icons = new ConcurrentHashMap<String, FutureTask<ImageIcon>>();
+
+	// method that loads every picture the screens use on background threads and returns right away
+	public static void preload() {
+
+		ArrayList<Callable<ImageIcon>> loads = new ArrayList<Callable<ImageIcon>>();
+
+		for (final String name : thirdSizeIcons)
+			loads.add(new Callable<ImageIcon>() {
+				@Override
+				public ImageIcon call() {
+
+					return getScaledIcon("utility/" + name + ".png", 3);
+
+				}
+			});
+
+		for (final String name : halfSizeIcons)
+			loads.add(new Callable<ImageIcon>() {
+				@Override
+				public ImageIcon call() {
+
+					return getScaledIcon("utility/" + name + ".png", 2);
+
+				}
+			});
+
+		for (final String name : fullSizeIcons)
+			loads.add(new Callable<ImageIcon>() {
+				@Override
+				public ImageIcon call() {
+
+					return getIcon("utility/" + name + ".png");
+
+				}
+			});
+
+		loads.add(new Callable<ImageIcon>() {
+			@Override
+			public ImageIcon call() {
+
+				return getIcon("utility/loading.gif", CustomizationTool.programWidth, CustomizationTool.programHeight);
+
+			}
+		});
+
+		// the threads are daemons and stop once every picture is loaded
+		ExecutorService loaders = Executors.newFixedThreadPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+
+						Thread thread = new Thread(runnable, "icon-loader");
+						thread.setDaemon(true);
+
+						return thread;
+
+					}
+				});
+
+		for (Callable<ImageIcon> load : loads)
+			loaders.submit(load);
+
+		loaders.shutdown();
+
+	}
+
+	// method that returns the icon of a picture at its own size
+	public static ImageIcon getIcon(final String location) {
+
+		return getOrLoad(location, new Callable<ImageIcon>() {
+			@Override
+			public ImageIcon call() throws IOException {
+
+				// animated pictures are left to the toolkit so they keep every frame
+				if (location.endsWith(".gif"))
+					return new ImageIcon(location);
+
+				BufferedImage image = ImageIO.read(new File(location));
+
+				if (image == null)
+					throw new IOException("file is not a readable image: " + location);
+
+				return new ImageIcon(image);
+
+			}
+		});
+
+	}
+
+	// method that returns the icon of a picture with its width and height divided by the divisor
+	public static ImageIcon getScaledIcon(String location, int divisor) {
+
+		ImageIcon icon = getIcon(location);
+
+		return getIcon(location, icon.getIconWidth() / divisor, icon.getIconHeight() / divisor);
+
+	}
+
+	// method that returns the icon of a picture scaled to the given width and height
+	public static ImageIcon getIcon(final String location, final int width, final int height) {
+
+		return getOrLoad(location + "@" + width + "x" + height, new Callable<ImageIcon>() {
+			@Override
+			public ImageIcon call() {
+
+				ImageIcon icon = getIcon(location);
+
+				if (icon.getIconWidth() == width && icon.getIconHeight() == height)
+					return icon;
+
+				// animated pictures are scaled frame by frame as they play
+				if (location.endsWith(".gif"))
+					return new ImageIcon(icon.getImage().getScaledInstance(width, height, Image.SCALE_DEFAULT));
+
+				// the picture is scaled once into an image of its own, the same way the screens used to scale it
+				BufferedImage scaledImage = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_ARGB);
+				Graphics2D g2d = scaledImage.createGraphics();
+				g2d.drawImage(icon.getImage(), 0, 0, width, height, null);
+				g2d.dispose();
+
+				return new ImageIcon(scaledImage);
+
+			}
+		});
+
+	}
+
+	// method that returns the icon stored under the key, loading it on this thread if no other thread is loading it
+	private static ImageIcon getOrLoad(String key, Callable<ImageIcon> load) {
+
+		FutureTask<ImageIcon> iconTask = icons.get(key);
+		boolean loadedHere = false;
+
+		if (iconTask == null) {
+
+			FutureTask<ImageIcon> newTask = new FutureTask<ImageIcon>(load);
+			iconTask = icons.putIfAbsent(key, newTask);
+
+			if (iconTask == null) {
+
+				iconTask = newTask;
+				iconTask.run();
+				loadedHere = true;
+
+			}
+
+		}
+
+		try {
+
+			return iconTask.get();
+
+		} catch (InterruptedException error) {
+
+			Thread.currentThread().interrupt();
+			return new ImageIcon();
+
+		} catch (ExecutionException error) {
+
+			// a picture that cannot be read is shown as an empty icon, like an ImageIcon of a missing file
+			if (loadedHere)
+				System.out.println("picture could not be loaded: " + key);
+
+			return new ImageIcon();
+
+		}
+
+	}
+
+}
@@ -1,59 +1,323 @@
 package utils;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
+import javax.sound.sampled.FloatControl;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
 
 /*
  * Author: Alan Sun
- * 
+ *
  * the music player class plays and stops a music loaded from file
+ * The music is streamed from the file into a source data line a small block at a time, so only the buffer of the line
+ * and one block are ever in memory, however long the music is
+ * Tracks are played one after the other on a single music thread, every method only changes what the thread does next
+ * and returns right away, so starting, stopping or switching the music never waits on the calling thread
+ * Only the music thread touches the line, it checks for pause, stop and volume changes after every block it writes
  */
 public class MusicPlayer {
 
-	// Variable for the music, stored as a clip
-	static Clip clip;
-	static AudioInputStream audioInput;
+	// length of the buffer of the line and of each block written to it, in milliseconds
+	private static final int lineBufferMillis = 250;
+	private static final int blockMillis = 50;
 
-	// Methods that create/play the music, takes in the location of the music
+	// thread streaming every track, a daemon so it never keeps the program open
+	private static final ExecutorService musicThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable, "music-player");
+			thread.setDaemon(true);
+
+			return thread;
+
+		}
+	});
+
+	// track playing or waiting to play, null if no music was ever started
+	private static MusicStream currentStream;
+
+	// volume from 0 to 1 applied to every track
+	private static volatile float volume = 1.0f;
+
+	// Methods that create/play the music, takes in the location of the music, the music loops continuously
 	public static void playMusic(String musicLocation) {
 
-		// if music location is found, play it. else catch it and print it is not found
-		try {
+		playMusic(musicLocation, true);
+
+	}
+
+	// method that stops the current music and plays the given one, once or looping continuously
+	public static synchronized void playMusic(String musicLocation, boolean looping) {
+
+		if (currentStream != null)
+			currentStream.stop();
+
+		currentStream = new MusicStream(new File(musicLocation), looping);
+		musicThread.execute(currentStream);
+
+	}
+
+	// Method to stop the music, does nothing if no music was started
+	public static synchronized void stopMusic() {
+
+		if (currentStream != null)
+			currentStream.stop();
+
+		currentStream = null;
+
+	}
+
+	// method that pauses the music where it is, does nothing if no music was started
+	public static synchronized void pauseMusic() {
+
+		if (currentStream != null)
+			currentStream.setPaused(true);
+
+	}
+
+	// method that resumes paused music from where it was paused
+	public static synchronized void resumeMusic() {
+
+		if (currentStream != null)
+			currentStream.setPaused(false);
+
+	}
+
+	// method that sets the volume of the music from 0 (silent) to 1 (as loud as the file)
+	public static void setVolume(float newVolume) {
+
+		volume = Math.max(0, Math.min(1, newVolume));
+
+	}
+
+	// method that returns true if music was started and is neither paused nor stopped
+	public static synchronized boolean isPlaying() {
+
+		return currentStream != null && !currentStream.isPaused() && !currentStream.isFinished();
+
+	}
+
+	/*
+	 * Music Stream class plays one track on the music thread, from the file straight into a source data line
+	 */
+	private static class MusicStream implements Runnable {
+
+		private final File musicFile;
+		private final boolean looping;
+
+		// changed by the other threads and checked by the music thread after every block
+		private boolean stopped;
+		private boolean paused;
+		private boolean finished;
+
+		// constructor taking in the file of the track and whether it starts again once it ends
+		private MusicStream(File musicFile, boolean looping) {
+
+			this.musicFile = musicFile;
+			this.looping = looping;
+
+		}
+
+		// method that streams the track until it ends or is stopped, starting it again from the file if it loops
+		@Override
+		public void run() {
+
+			// a track stopped before its turn never opens a line
+			if (isStopped())
+				return;
+
+			SourceDataLine line = null;
+
+			// if music location is found, play it. else catch it and print it is not found
+			try {
+
+				do {
+
+					try (AudioInputStream audioInput = openPcmStream(musicFile)) {
+
+						AudioFormat format = audioInput.getFormat();
+
+						// the line is opened once for the first pass and kept for the next passes of a looping track
+						if (line == null) {
+
+							line = AudioSystem.getSourceDataLine(format);
+							line.open(format, getByteCount(format, lineBufferMillis));
+							line.start();
+
+						}
+
+						long writtenCount = streamInto(audioInput, line, getByteCount(format, blockMillis));
+
+						// a stopped track ends here, and an empty track is never started again
+						if (writtenCount < 0)
+							return;
+
+						if (writtenCount == 0)
+							break;
+
+					}
+
+				} while (looping && !isStopped());
 
-			// Make a file that stores the location of the music
-			File Sound = new File(musicLocation);
+				// let the end of a track that plays once finish
+				if (!isStopped())
+					line.drain();
 
-			// allow AudioInputStream to store the sound file
-			audioInput = AudioSystem.getAudioInputStream(Sound);
+			} catch (IOException | UnsupportedAudioFileException error) {
 
-			// the actual audio clip is received from the AudioInputStream
-			clip = AudioSystem.getClip();
+				System.out.println("music file is not found");
 
-			// load the audio using clip
-			clip.open(audioInput);
-			
-			// allows the music to loop continuously once it finishes
-			clip.loop(Clip.LOOP_CONTINUOUSLY);
+			} catch (LineUnavailableException | IllegalArgumentException | SecurityException error) {
 
-			// start the music
-			clip.start();
+				System.out.println("no audio line available for " + musicFile);
 
-		} catch (Exception ex) {
+			} catch (InterruptedException error) {
 
-			// if music file is not found, print it
-			System.out.println("music file is not found");
+				Thread.currentThread().interrupt();
+
+			} finally {
+
+				if (line != null) {
+
+					line.stop();
+					line.flush();
+					line.close();
+
+				}
+
+				synchronized (this) {
+
+					finished = true;
+
+				}
+
+			}
 
 		}
 
+		// method that writes the track into the line one block at a time, returns the number of bytes written
+		// or -1 if it was stopped before the end
+		private long streamInto(AudioInputStream audioInput, SourceDataLine line, int blockSize)
+				throws IOException, InterruptedException {
+
+			byte[] block = new byte[blockSize];
+			float lineVolume = -1;
+			long writtenCount = 0;
+
+			while (true) {
+
+				// wait here while paused, with the line stopped so it keeps the samples it has not played yet
+				synchronized (this) {
+
+					if (paused && !stopped) {
+
+						line.stop();
+
+						while (paused && !stopped)
+							wait();
+
+						line.start();
+
+					}
+
+					if (stopped)
+						return -1;
+
+				}
+
+				if (lineVolume != volume) {
+
+					lineVolume = volume;
+					applyVolume(line, lineVolume);
+
+				}
+
+				int readCount = audioInput.read(block);
+
+				if (readCount < 0)
+					return writtenCount;
+
+				line.write(block, 0, readCount);
+				writtenCount += readCount;
+
+			}
+
+		}
+
+		// method that stops the track, the music thread closes its line after the block it is writing
+		private synchronized void stop() {
+
+			stopped = true;
+			notifyAll();
+
+		}
+
+		// method that pauses or resumes the track
+		private synchronized void setPaused(boolean paused) {
+
+			this.paused = paused;
+			notifyAll();
+
+		}
+
+		private synchronized boolean isStopped() {
+			return stopped;
+		}
+
+		private synchronized boolean isPaused() {
+			return paused;
+		}
+
+		private synchronized boolean isFinished() {
+			return finished || stopped;
+		}
+
+	}
+
+	// method that opens a music file as 16 bit samples if it is compressed, without reading any of it yet
+	private static AudioInputStream openPcmStream(File musicFile) throws IOException, UnsupportedAudioFileException {
+
+		AudioInputStream audioInput = AudioSystem.getAudioInputStream(musicFile);
+		AudioFormat format = audioInput.getFormat();
+
+		if (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED || format.getEncoding() == AudioFormat.Encoding.PCM_UNSIGNED)
+			return audioInput;
+
+		return AudioSystem.getAudioInputStream(new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false), audioInput);
+
+	}
+
+	// method that returns the number of bytes, a whole number of frames, played in the given time
+	private static int getByteCount(AudioFormat format, int millis) {
+
+		int frameCount = Math.max(1, (int) (format.getFrameRate() * millis / 1000));
+
+		return frameCount * Math.max(1, format.getFrameSize());
+
 	}
 
-	// Method to stop the music
-	public static void stopMusic() {
-		// Stop the music
-		clip.stop();
+	// method that sets the gain of the line to the volume, if the line has a gain control
+	private static void applyVolume(SourceDataLine line, float lineVolume) {
+
+		if (!line.isControlSupported(FloatControl.Type.MASTER_GAIN))
+			return;
+
+		FloatControl gainControl = (FloatControl) line.getControl(FloatControl.Type.MASTER_GAIN);
+
+		// the volume is a ratio of the amplitude, the gain is in decibels
+		float gain = lineVolume <= 0 ? gainControl.getMinimum() : (float) (20 * Math.log10(lineVolume));
+
+		gainControl.setValue(Math.max(gainControl.getMinimum(), Math.min(gainControl.getMaximum(), gain)));
 
 	}
 